@@ -20,10 +20,10 @@ export default function Login({ onLogin }) {
     try {
       let user;
       if (isRegister) {
-        user = await api.register(username, email, password);
-      } else {
-        user = await api.login(username, password);
+        await api.register(username, email, password);
       }
+      // Registering doesn't return a token, so log in either way
+      user = await api.login(username, password);
       onLogin(user);
       navigate('/');
     } catch (err) {
@@ -29,7 +29,7 @@ export default function Practice({ user }) {
     if (user) {
       setEvaluating(true);
       try {
-        const submission = await api.submitAnswer(user.id, question.id, userAnswer);
+        const submission = await api.submitAnswer(question.id, userAnswer);
         setFeedback({
           isAi: true,
           grade: submission.aiGrade,
@@ -129,8 +129,7 @@ export default function Profile({ user, onLogout }) {
                 <div style={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center' }}>
                   <div style={{ flex: 1 }}>
                     <p style={{ fontSize: '14px', marginBottom: '4px' }}>
-                      {sub.question?.questionText?.substring(0, 80) || 'Kysymys'}
-                      {sub.question?.questionText?.length > 80 ? '...' : ''}
+                      {sub.question?.questionNumber ? `Tehtava ${sub.question.questionNumber}` : 'Kysymys'}
                     </p>
                     <div style={{ display: 'flex', gap: '8px', alignItems: 'center' }}>
                       <span className="text-secondary" style={{ fontSize: '12px' }}>
@@ -10,6 +10,7 @@ export default function QuestionView({ user }) {
   const [feedback, setFeedback] = useState(null);
   const [loading, setLoading] = useState(true);
   const [evaluating, setEvaluating] = useState(false);
+  const [streamedFeedback, setStreamedFeedback] = useState('');
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -24,14 +25,16 @@ export default function QuestionView({ user }) {
     if (user) {
       // AI evaluation via backend
       setEvaluating(true);
+      setStreamedFeedback('');
       try {
-        const submission = await api.submitAnswer(user.id, question.id, userAnswer);
+        const result = await api.streamAnswer(question.id, userAnswer,
+          text => setStreamedFeedback(previous => previous + text));
         setFeedback({
           isAi: true,
-          grade: submission.aiGrade,
-          score: submission.aiScore,
+          grade: result.grade,
+          score: result.score,
           maxScore: question.points,
-          feedbackText: submission.aiFeedback,
+          feedbackText: result.feedback,
         });
       } catch {
         // Fallback to simple check
@@ -192,9 +195,15 @@ export default function QuestionView({ user }) {
             <p style={{ fontSize: '16px', fontWeight: '500', marginBottom: '8px' }}>
               AI arvioi vastaustasi...
             </p>
-            <p className="text-secondary" style={{ fontSize: '14px' }}>
-              Tama voi kestaa hetken
-            </p>
+            {streamedFeedback ? (
+              <p style={{ fontSize: '15px', lineHeight: '1.6', whiteSpace: 'pre-wrap', textAlign: 'left' }}>
+                {streamedFeedback}
+              </p>
+            ) : (
+              <p className="text-secondary" style={{ fontSize: '14px' }}>
+                Tama voi kestaa hetken
+              </p>
+            )}
           </div>
         ) : feedback.isAi ? (
           <div>
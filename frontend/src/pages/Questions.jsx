@@ -3,19 +3,67 @@ import { useNavigate, useSearchParams } from 'react-router-dom';
 import Navbar from '../components/Navbar';
 import api from '../services/api';
 
+const PAGE_SIZE = 50;
+const SEARCH_DEBOUNCE_MS = 250;
+
 export default function Questions({ user }) {
   const [questions, setQuestions] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [searchParams] = useSearchParams();
   const [filter, setFilter] = useState(searchParams.get('subject') || '');
   const [difficultyFilter, setDifficultyFilter] = useState('');
+  const [query, setQuery] = useState('');
   const navigate = useNavigate();
 
+  // Filtering and paging happen on the server; the cursor is the last id of the previous page
+  const fetchPage = (after) => {
+    const params = new URLSearchParams({ size: PAGE_SIZE });
+    if (after) params.set('after', after);
+    if (filter) params.set('subject', filter);
+    if (difficultyFilter) params.set('difficulty', difficultyFilter);
+    return api.get(`/questions/page?${params}`);
+  };
+
   useEffect(() => {
-    api.get('/questions')
-      .then(data => { setQuestions(data || []); setLoading(false); })
+    setLoading(true);
+    fetchPage(null)
+      .then(page => { setQuestions(page?.items || []); setNextCursor(page?.nextCursor ?? null); setLoading(false); })
       .catch(() => setLoading(false));
-  }, []);
+  }, [filter, difficultyFilter]);
+
+  // Full-text search replaces the paged list while there is a query; results come ranked by relevance
+  useEffect(() => {
+    if (!query.trim()) return;
+    const timer = setTimeout(() => {
+      const params = new URLSearchParams({ q: query, limit: PAGE_SIZE });
+      if (filter) params.set('subject', filter);
+      api.get(`/questions/search?${params}`)
+        .then(hits => {
+          const found = (hits || []).map(hit => hit.question);
+          setQuestions(difficultyFilter ? found.filter(q => q.difficulty === difficultyFilter) : found);
+          setNextCursor(null);
+        })
+        .catch(() => setQuestions([]));
+    }, SEARCH_DEBOUNCE_MS);
+    return () => clearTimeout(timer);
+  }, [query, filter, difficultyFilter]);
+
+  const clearSearch = () => {
+    setQuery('');
+    fetchPage(null).then(page => { setQuestions(page?.items || []); setNextCursor(page?.nextCursor ?? null); });
+  };
+
+  const loadMore = () => {
+    setLoadingMore(true);
+    fetchPage(nextCursor)
+      .then(page => {
+        setQuestions(previous => [...previous, ...(page?.items || [])]);
+        setNextCursor(page?.nextCursor ?? null);
+      })
+      .finally(() => setLoadingMore(false));
+  };
 
   // Update filter from URL
   useEffect(() => {
@@ -23,21 +71,14 @@ export default function Questions({ user }) {
     if (subject) setFilter(subject);
   }, [searchParams]);
 
-  const subjects = [...new Set(questions.map(q => q.subject).filter(Boolean))];
-  const difficulties = [...new Set(questions.map(q => q.difficulty).filter(Boolean))];
-
-  const filtered = questions.filter(q => {
-    if (filter && q.subject !== filter) return false;
-    if (difficultyFilter && q.difficulty !== difficultyFilter) return false;
-    return true;
-  });
-
   const subjectLabels = {
     mathematics: 'Matematiikka', physics: 'Fysiikka', chemistry: 'Kemia',
     english: 'Englanti', history: 'Historia',
   };
 
   const difficultyLabels = { easy: 'Helppo', medium: 'Keskitaso', hard: 'Vaikea' };
+  const subjects = Object.keys(subjectLabels);
+  const difficulties = Object.keys(difficultyLabels);
   const difficultyColors = {
     easy: 'var(--color-success)', medium: 'var(--color-warning)', hard: 'var(--color-error)',
   };
@@ -57,12 +98,20 @@ export default function Questions({ user }) {
             </span>}
           </h2>
           <span className="text-secondary" style={{ fontSize: '14px' }}>
-            {filtered.length} / {questions.length} kysymysta
+            {questions.length}{nextCursor ? '+' : ''} kysymysta
           </span>
         </div>
 
         {/* Filters */}
         <div style={{ display: 'flex', gap: '12px', marginBottom: '24px', flexWrap: 'wrap' }}>
+          <input
+            type="search"
+            value={query}
+            onChange={(e) => (e.target.value ? setQuery(e.target.value) : clearSearch())}
+            placeholder="Hae kysymyksista..."
+            style={{ padding: '10px 16px', minWidth: '240px', flex: 1 }}
+          />
+
           <select
             value={filter}
             onChange={(e) => setFilter(e.target.value)}
@@ -97,14 +146,14 @@ export default function Questions({ user }) {
         </div>
 
         {/* Questions list */}
-        {filtered.length === 0 ? (
+        {questions.length === 0 ? (
           <div className="card" style={{ padding: '48px', textAlign: 'center' }}>
             <p style={{ fontSize: '18px', marginBottom: '8px', fontWeight: '500' }}>Ei kysymyksia</p>
             <p className="text-secondary">Kokeile eri suodattimia tai lisaa kysymyksia backendiin.</p>
           </div>
         ) : (
           <div style={{ display: 'grid', gap: '12px' }}>
-            {filtered.map((q) => (
+            {questions.map((q) => (
               <div
                 key={q.id}
                 className="card"
@@ -144,7 +193,7 @@ export default function Questions({ user }) {
                       )}
                     </div>
                     <p style={{ fontSize: '15px', lineHeight: '1.5' }}>
-                      {q.questionText}
+                      {q.questionPreview}
                     </p>
                   </div>
                   <span style={{
@@ -161,6 +210,11 @@ export default function Questions({ user }) {
                 </div>
               </div>
             ))}
+            {nextCursor && (
+              <button className="btn-secondary" style={{ padding: '14px' }} onClick={loadMore} disabled={loadingMore}>
+                {loadingMore ? 'Ladataan...' : 'Lataa lisaa'}
+              </button>
+            )}
           </div>
         )}
       </div>
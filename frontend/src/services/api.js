@@ -1,14 +1,33 @@
 const API_BASE_URL = 'http://localhost:8080/api';
 
-async function request(endpoint, options = {}) {
+const POLL_INTERVAL_MS = 1000;
+const POLL_MAX_ATTEMPTS = 60;
+
+const sleep = (ms) => new Promise(resolve => setTimeout(resolve, ms));
+
+// The login response carries a signed token; send it so the server knows who is asking
+function authHeaders() {
+  const token = JSON.parse(localStorage.getItem('user') || 'null')?.token;
+  return token ? { Authorization: `Bearer ${token}` } : {};
+}
+
+// The stored token expired or its user is gone: forget it and log in again
+function onUnauthorized() {
+  localStorage.removeItem('user');
+  window.location.assign('/login');
+}
+
+// Login and register pass auth: false; a stale token must not ride along, and their 401 is a wrong password
+async function request(endpoint, { auth = true, ...options } = {}) {
   const url = `${API_BASE_URL}${endpoint}`;
   const config = {
-    headers: { 'Content-Type': 'application/json' },
+    headers: { 'Content-Type': 'application/json', ...(auth ? authHeaders() : {}) },
     ...options,
   };
 
   const response = await fetch(url, config);
 
+  if (response.status === 401 && auth) onUnauthorized();
   if (!response.ok) {
     const error = await response.text();
     throw new Error(error || `HTTP ${response.status}`);
@@ -32,19 +51,66 @@ const api = {
 
   // Auth
   login: (username, password) => request('/users/login', {
+    auth: false,
     method: 'POST',
     body: JSON.stringify({ username, password }),
   }),
   register: (username, email, password) => request('/users', {
+    auth: false,
     method: 'POST',
     body: JSON.stringify({ username, email, password }),
   }),
 
   // Submissions
-  submitAnswer: (userId, questionId, answerText) => request('/submissions', {
-    method: 'POST',
-    body: JSON.stringify({ userId, questionId, answerText }),
-  }),
+  // Grading may run in the background (202 + PENDING), so poll until the AI fields are filled in
+  // The server takes the user from the token
+  submitAnswer: async (questionId, answerText) => {
+    let submission = await request('/submissions', {
+      method: 'POST',
+      body: JSON.stringify({ questionId, answerText }),
+    });
+    for (let i = 0; submission?.gradingStatus === 'PENDING' && i < POLL_MAX_ATTEMPTS; i++) {
+      await sleep(POLL_INTERVAL_MS);
+      submission = await request(`/submissions/${submission.id}`);
+    }
+    return submission;
+  },
+  // Streams the grading over SSE; onFeedback gets feedback text as the AI writes it
+  streamAnswer: async (questionId, answerText, onFeedback) => {
+    const response = await fetch(`${API_BASE_URL}/submissions/stream`, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json', Accept: 'text/event-stream', ...authHeaders() },
+      body: JSON.stringify({ questionId, answerText }),
+    });
+    if (response.status === 401) onUnauthorized();
+    if (!response.ok) {
+      const error = await response.text();
+      throw new Error(error || `HTTP ${response.status}`);
+    }
+
+    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+    let buffer = '';
+    let submissionId = null;
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += value;
+
+      let end;
+      while ((end = buffer.indexOf('\n\n')) >= 0) {
+        const lines = buffer.slice(0, end).split('\n');
+        buffer = buffer.slice(end + 2);
+        const event = lines.find(line => line.startsWith('event:'))?.slice(6).trim();
+        const data = lines.filter(line => line.startsWith('data:')).map(line => line.slice(5)).join('\n');
+
+        if (event === 'submission') submissionId = JSON.parse(data).id;
+        else if (event === 'feedback') onFeedback?.(data);
+        else if (event === 'result') return { id: submissionId, ...JSON.parse(data) };
+        else if (event === 'error') throw new Error(JSON.parse(data).message);
+      }
+    }
+    throw new Error('Arviointi keskeytyi');
+  },
   getSubmissions: (userId) => request(`/submissions/user/${userId}`),
   getSubmission: (id) => request(`/submissions/${id}`),
 
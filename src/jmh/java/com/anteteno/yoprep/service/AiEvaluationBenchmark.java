@@ -0,0 +1,85 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt building and response parsing around each AI evaluation, without the network call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AiEvaluationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Answer {
+
+        // Characters in the student's answer; exam answers run from a paragraph to a few pages
+        @Param({"300", "3000"})
+        public int length;
+
+        private String text;
+
+        @Setup
+        public void setUp() {
+            text = "Kiihtyvyys on g sin α, eli noin 4,9 m/s². ".repeat(length / 40 + 1).substring(0, length);
+        }
+    }
+
+    private AiEvaluationService service;
+    private Question question;
+    private String response;
+    private String fencedResponse;
+
+    @Setup
+    public void setUp() throws Exception {
+        service = new AiEvaluationService(WebClient.create(), new ObjectMapper(),
+                new EvaluationCache(100, Duration.ofMinutes(1)),
+                new AiCircuitBreaker(20, 10, 0.5, Duration.ofSeconds(20), Duration.ofSeconds(30), 3),
+                new AiRequestLimiter(5, 10, 20, 500, 5),
+                new SimpleMeterRegistry(),
+                2, Duration.ofMillis(500), Duration.ofSeconds(5));
+        question = Question.builder()
+                .examCode("pfys_k2025").subject("physics").questionNumber(4).points(12)
+                .questionText("Kappale liukuu kitkattomasti kaltevaa tasoa alas. Määritä kappaleen kiihtyvyys, "
+                        + "kun tason kaltevuuskulma on 30 astetta, ja selitä, miten tulos muuttuu kitkan kanssa.")
+                .build();
+
+        ObjectMapper mapper = new ObjectMapper();
+        String evaluation = "{\"grade\": \"m\", \"score\": 9, \"feedback\": \"Hyvä ratkaisu, perustelut puuttuvat osin.\"}";
+        response = mapper.writeValueAsString(Map.of("content",
+                List.of(Map.of("type", "text", "text", evaluation))));
+        fencedResponse = mapper.writeValueAsString(Map.of("content",
+                List.of(Map.of("type", "text", "text", "```json\n" + evaluation + "\n```"))));
+    }
+
+    @Benchmark
+    public String buildPrompt(Answer answer) {
+        return service.buildPrompt(question, answer.text);
+    }
+
+    @Benchmark
+    public AiEvaluationService.EvaluationResult parseResponse() {
+        return service.parseResponse(response);
+    }
+
+    @Benchmark
+    public AiEvaluationService.EvaluationResult parseFencedResponse() {
+        return service.parseResponse(fencedResponse);
+    }
+}
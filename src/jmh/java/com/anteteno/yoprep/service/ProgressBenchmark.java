@@ -0,0 +1,126 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.YoprepApplication;
+import com.anteteno.yoprep.dto.SubjectStats;
+import com.anteteno.yoprep.entity.Submission;
+import com.anteteno.yoprep.repository.SubmissionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * What {@code GET /api/progress/{userId}} and {@code /live} cost for a user with 10k or 100k
+ * submissions: the maintained per-subject aggregates against the aggregate query over the history,
+ * and both against loading every submission as an entity and grouping in Java, which the aggregate
+ * query replaced. Compare {@code gc.alloc.rate.norm} for the memory side. Runs on the real schema
+ * (H2, Flyway migrations) inside a Spring context without the web layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProgressBenchmark {
+
+    private static final String[] SUBJECTS = {"mathematics", "physics", "chemistry", "biology", "history", "english"};
+    private static final int QUESTIONS = 60;
+
+    @Param({"10000", "100000"})
+    public int submissions;
+
+    private ConfigurableApplicationContext context;
+    private ProgressService progressService;
+    private SubmissionRepository submissionRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(YoprepApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                // As arguments: builder properties are only defaults and lose to application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:progress_bench_" + submissions,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        progressService = context.getBean(ProgressService.class);
+        submissionRepository = context.getBean(SubmissionRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> maintainedAggregates() {
+        return progressService.getProgress(userId);
+    }
+
+    @Benchmark
+    public Map<String, Object> liveAggregateQuery() {
+        return progressService.getProgressFromSubmissions(userId);
+    }
+
+    @Benchmark
+    public Map<String, SubjectStats> entitiesGroupedInMemory() {
+        return transactionTemplate.execute(status -> submissionRepository.findByUserId(userId).stream()
+                .collect(Collectors.groupingBy(s -> s.getQuestion().getSubject(), TreeMap::new, Collectors.toList()))
+                .entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    List<Submission> subs = entry.getValue();
+                    return new SubjectStats(entry.getKey(), subs.size(),
+                            subs.stream().filter(s -> s.getAiScore() != null).mapToInt(Submission::getAiScore).average().orElse(0.0),
+                            subs.stream().filter(s -> s.getAiScore() != null).mapToInt(Submission::getAiScore).max().orElse(0));
+                }, (a, b) -> a, TreeMap::new)));
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        jdbc.update("INSERT INTO users (username, email, password) VALUES ('bench', 'bench@example.com', '-')");
+        userId = jdbc.queryForObject("SELECT id FROM users WHERE username = 'bench'", Long.class);
+        for (int i = 0; i < QUESTIONS; i++) {
+            jdbc.update("INSERT INTO questions (exam_code, subject, question_number, question_text, points) "
+                    + "VALUES (?, ?, ?, ?, 12)", "bench_k2025", SUBJECTS[i % SUBJECTS.length], i + 1, "Kysymys " + i);
+        }
+        List<Long> questionIds = jdbc.queryForList("SELECT id FROM questions ORDER BY id", Long.class);
+
+        // Fixed seed so every run aggregates the same history
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 0; i < submissions; i++) {
+            batch.add(new Object[]{userId, questionIds.get(random.nextInt(questionIds.size())),
+                    "Vastaus " + i, Timestamp.valueOf(start.plusMinutes(i)), "m", random.nextInt(13), "GRADED"});
+            if (batch.size() == 1000 || i == submissions - 1) {
+                jdbc.batchUpdate("INSERT INTO submissions (user_id, question_id, answer_text, submitted_at, "
+                        + "ai_grade, ai_score, grading_status) VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        // What ProgressService.saveGraded would have accumulated for the same history
+        jdbc.update("INSERT INTO subject_progress (user_id, subject, answer_count, score_sum, best_score, last_submitted_at) "
+                + "SELECT s.user_id, q.subject, COUNT(*), SUM(s.ai_score), MAX(s.ai_score), MAX(s.submitted_at) "
+                + "FROM submissions s JOIN questions q ON q.id = s.question_id GROUP BY s.user_id, q.subject");
+    }
+}
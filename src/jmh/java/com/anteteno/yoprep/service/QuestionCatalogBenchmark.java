@@ -0,0 +1,79 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Random question selection ({@code QuestionService.getRandomQuestion}) over large question banks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuestionCatalogBenchmark {
+
+    private static final String[] SUBJECTS = {
+            "mathematics", "physics", "chemistry", "biology", "geography", "history", "social_studies",
+            "philosophy", "psychology", "health_education", "english", "swedish", "finnish"
+    };
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    @Param({"10000", "100000"})
+    public int questions;
+
+    private QuestionCatalog catalog;
+
+    @Setup
+    public void setUp() {
+        // Fixed seed so every run selects from the same bank
+        Random random = new Random(42);
+        List<Question> bank = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            bank.add(Question.builder()
+                    .id((long) i + 1)
+                    .examCode("exam_" + i / 20)
+                    .subject(SUBJECTS[random.nextInt(SUBJECTS.length)])
+                    .difficulty(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)])
+                    .questionNumber(i % 20 + 1)
+                    .questionText("Kysymys " + i)
+                    .points(6)
+                    .build());
+        }
+        QuestionRepository repository = mock(QuestionRepository.class);
+        when(repository.findAll()).thenReturn(bank);
+        catalog = new QuestionCatalog(repository);
+        catalog.reload();
+    }
+
+    @Benchmark
+    public Optional<Question> anyQuestion() {
+        return catalog.pickRandom(null, null, null);
+    }
+
+    @Benchmark
+    public Optional<Question> bySubject() {
+        return catalog.pickRandom("physics", null, null);
+    }
+
+    // Two filters: the smaller index is scanned and filtered on every call
+    @Benchmark
+    public Optional<Question> bySubjectAndDifficulty() {
+        return catalog.pickRandom("physics", "hard", null);
+    }
+}
@@ -0,0 +1,83 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.SearchHit;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * BM25 full-text search ({@code GET /api/questions/search}) over large question banks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestionSearchBenchmark {
+
+    private static final int VOCABULARY_SIZE = 5000;
+    private static final int WORDS_PER_QUESTION = 40;
+
+    @Param({"10000", "50000"})
+    public int questions;
+
+    private QuestionSearchIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Fixed seed so every run searches the same bank with the same queries
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = "sana" + Integer.toString(i, 36) + (i % 2 == 0 ? "ssa" : "n");
+        }
+        List<Question> bank = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_QUESTION; w++) {
+                // Zipf-like: low word indexes are far more common, like real text
+                text.append(vocabulary[(int) (Math.pow(random.nextDouble(), 3) * vocabulary.length)]).append(' ');
+            }
+            bank.add(Question.builder()
+                    .id((long) i + 1)
+                    .examCode("exam_" + i / 20)
+                    .subject(i % 2 == 0 ? "physics" : "history")
+                    .questionText(text.toString())
+                    .build());
+        }
+        QuestionRepository repository = mock(QuestionRepository.class);
+        when(repository.findAll()).thenReturn(bank);
+        index = new QuestionSearchIndex(repository);
+        index.rebuild();
+
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = vocabulary[random.nextInt(vocabulary.length)] + " " + vocabulary[random.nextInt(vocabulary.length)];
+        }
+    }
+
+    @Benchmark
+    public List<SearchHit> twoWordQuery() {
+        return index.search(queries[next++ & (queries.length - 1)], null, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> twoWordQueryInSubject() {
+        return index.search(queries[next++ & (queries.length - 1)], "physics", 20);
+    }
+}
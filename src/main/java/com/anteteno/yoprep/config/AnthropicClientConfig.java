@@ -0,0 +1,59 @@
+package com.anteteno.yoprep.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class AnthropicClientConfig {
+
+    public static final String DEFAULT_BASE_URL = "https://api.anthropic.com";
+
+    // One shared, keep-alive pool for every evaluation instead of a connection per request
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider anthropicConnectionProvider(
+            @Value("${anthropic.http.max-connections:100}") int maxConnections,
+            @Value("${anthropic.http.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${anthropic.http.pending-acquire-timeout:10s}") Duration pendingAcquireTimeout,
+            @Value("${anthropic.http.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${anthropic.http.max-life-time:5m}") Duration maxLifeTime) {
+        return ConnectionProvider.builder("anthropic")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    public WebClient anthropicWebClient(ConnectionProvider anthropicConnectionProvider,
+                                        @Value("${anthropic.base-url:" + DEFAULT_BASE_URL + "}") String baseUrl,
+                                        @Value("${anthropic.api-key:}") String apiKey,
+                                        @Value("${anthropic.http.connect-timeout:5s}") Duration connectTimeout,
+                                        @Value("${anthropic.http.response-timeout:60s}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create(anthropicConnectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader("x-api-key", apiKey)
+                .defaultHeader("anthropic-version", "2023-06-01")
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+}
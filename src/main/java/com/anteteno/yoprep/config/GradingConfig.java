@@ -0,0 +1,27 @@
+package com.anteteno.yoprep.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class GradingConfig {
+
+    // Evaluations run on the shared WebClient pool; this pool only persists the finished results
+    @Bean
+    public ThreadPoolTaskExecutor gradingExecutor(@Value("${grading.pool.core-size:4}") int coreSize,
+                                                  @Value("${grading.pool.max-size:16}") int maxSize,
+                                                  @Value("${grading.pool.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("grading-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
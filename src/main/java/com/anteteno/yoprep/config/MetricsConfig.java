@@ -0,0 +1,98 @@
+package com.anteteno.yoprep.config;
+
+import com.anteteno.yoprep.security.PasswordHasher;
+import com.anteteno.yoprep.service.AiRequestLimiter;
+import com.anteteno.yoprep.service.EvaluationCache;
+import com.anteteno.yoprep.service.UserIdentityCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Exposes the limiter, password pool and cache counters (the same numbers as /api/stats) as
+ * meters, and turns on latency histograms for the submission and progress endpoints so p99 can be
+ * computed across instances. Hikari and JVM metrics come from Spring Boot itself.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final List<String> HISTOGRAM_URIS = List.of("/api/submissions", "/api/progress");
+
+    @Bean
+    public MeterFilter endpointLatencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                String uri = id.getTag("uri");
+                if (!"http.server.requests".equals(id.getName()) || uri == null
+                        || HISTOGRAM_URIS.stream().noneMatch(uri::startsWith)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder aiLimiterMetrics(AiRequestLimiter limiter) {
+        return registry -> {
+            gauge(registry, "yoprep.ai.limiter.in-flight", Tags.empty(), limiter::stats, "inFlight");
+            gauge(registry, "yoprep.ai.limiter.queued", Tags.empty(), limiter::stats, "queued");
+            counter(registry, "yoprep.ai.limiter.rejected", Tags.empty(), limiter::stats, "rejected");
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordHasher hasher) {
+        return registry -> {
+            gauge(registry, "yoprep.password.hashing.active", Tags.empty(), hasher::stats, "active");
+            gauge(registry, "yoprep.password.hashing.queued", Tags.empty(), hasher::stats, "queued");
+            counter(registry, "yoprep.password.hashing.rejected", Tags.empty(), hasher::stats, "rejected");
+            counter(registry, "yoprep.password.hashing.timed-out", Tags.empty(), hasher::stats, "timedOut");
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheMetrics(EvaluationCache evaluationCache, UserIdentityCache userIdentityCache) {
+        return registry -> {
+            cache(registry, "evaluation", evaluationCache::stats);
+            cache(registry, "user-identity", userIdentityCache::stats);
+        };
+    }
+
+    private static void cache(MeterRegistry registry, String name, Supplier<Map<String, Object>> stats) {
+        Tags tags = Tags.of("cache", name);
+        gauge(registry, "yoprep.cache.size", tags, stats, "size");
+        counter(registry, "yoprep.cache.hits", tags, stats, "hits");
+        counter(registry, "yoprep.cache.misses", tags, stats, "misses");
+        counter(registry, "yoprep.cache.evictions", tags, stats, "evictions");
+    }
+
+    private static void gauge(MeterRegistry registry, String name, Tags tags,
+                              Supplier<Map<String, Object>> stats, String key) {
+        Gauge.builder(name, stats, source -> value(source.get(), key)).tags(tags).register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String name, Tags tags,
+                                Supplier<Map<String, Object>> stats, String key) {
+        FunctionCounter.builder(name, stats, source -> value(source.get(), key)).tags(tags).register(registry);
+    }
+
+    private static double value(Map<String, Object> stats, String key) {
+        return stats.get(key) instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+}
@@ -1,12 +1,18 @@
 package com.anteteno.yoprep.config;
 
+import com.anteteno.yoprep.security.AuthTokenService;
+import com.anteteno.yoprep.security.TokenAuthenticationFilter;
+import com.anteteno.yoprep.service.UserIdentityCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -19,13 +25,23 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthTokenService authTokenService,
+                                                   UserIdentityCache userIdentityCache) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
+                // Answers, progress, usage and service stats: the user id comes from the token, never from the request
+                .requestMatchers("/api/submissions/**", "/api/progress/**", "/api/usage", "/api/usage/**",
+                        "/api/stats", "/api/stats/**").authenticated()
+                .requestMatchers(HttpMethod.DELETE, "/api/users/*").authenticated()
                 .anyRequest().permitAll()  // Allow all requests for now (ONLY for development!)
             )
-            .csrf(csrf -> csrf.disable());  // Disable CSRF for testing
+            .csrf(csrf -> csrf.disable())  // Disable CSRF for testing
+            // Bearer tokens are verified on every request: no HTTP session, existence comes from the identity cache
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // No token: 401 so the frontend sends the student to log in
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .addFilterBefore(new TokenAuthenticationFilter(authTokenService, userIdentityCache), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -42,10 +58,5 @@ public class SecurityConfig {
         source.registerCorsConfiguration("/**", configuration);
         return source;
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
 
@@ -1,10 +1,19 @@
 package com.anteteno.yoprep.controller;
 
+import com.anteteno.yoprep.dto.ArchiveIngestionReport;
+import com.anteteno.yoprep.dto.ImportReport;
+import com.anteteno.yoprep.dto.QuestionPage;
+import com.anteteno.yoprep.dto.SearchHit;
 import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.service.ExamArchiveIngestionService;
+import com.anteteno.yoprep.service.QuestionImportService;
 import com.anteteno.yoprep.service.QuestionService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -13,20 +22,40 @@ import java.util.List;
 public class QuestionController {
 
     private final QuestionService questionService;
+    private final QuestionImportService questionImportService;
+    private final ExamArchiveIngestionService examArchiveIngestionService;
 
     @GetMapping
     public List<Question> getAllQuestions() {
         return questionService.getAllQuestions();
     }
 
+    @GetMapping("/page")
+    public QuestionPage getQuestionPage(@RequestParam(required = false) Long after,
+                                        @RequestParam(defaultValue = "20") int size,
+                                        @RequestParam(required = false) String subject,
+                                        @RequestParam(required = false) String examCode,
+                                        @RequestParam(required = false) String difficulty) {
+        return questionService.getQuestionPage(after, size, subject, examCode, difficulty);
+    }
+
+    @GetMapping("/search")
+    public List<SearchHit> searchQuestions(@RequestParam String q,
+                                           @RequestParam(required = false) String subject,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        return questionService.searchQuestions(q, subject, limit);
+    }
+
     @GetMapping("/{id}")
     public Question getQuestionById(@PathVariable Long id) {
         return questionService.getQuestionById(id);
     }
 
     @GetMapping("/random")
-    public Question getRandomQuestion() {
-        return questionService.getRandomQuestion();
+    public Question getRandomQuestion(@RequestParam(required = false) String subject,
+                                      @RequestParam(required = false) String difficulty,
+                                      @RequestParam(required = false) String examCode) {
+        return questionService.getRandomQuestion(subject, difficulty, examCode);
     }
 
     @PostMapping
@@ -34,6 +63,28 @@ public class QuestionController {
         return questionService.createQuestion(question);
     }
 
+    /**
+     * Bulk import from a JSON array or NDJSON body (e.g. {@code curl --data-binary @questions.ndjson}).
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ImportReport importQuestions(HttpServletRequest request,
+                                        @RequestParam(required = false) Integer batchSize) throws IOException {
+        return questionImportService.importQuestions(request.getInputStream(), batchSize);
+    }
+
+    /**
+     * Parses the saved exam pages under {@code path} (relative to questions.archive.directory).
+     */
+    @PostMapping("/archive/ingest")
+    public ArchiveIngestionReport ingestArchive(@RequestParam(required = false) String path) throws IOException {
+        return examArchiveIngestionService.ingest(path);
+    }
+
+    @PutMapping("/{id}")
+    public Question updateQuestion(@PathVariable Long id, @RequestBody Question question) {
+        return questionService.updateQuestion(id, question);
+    }
+
     @DeleteMapping("/{id}")
     public String deleteQuestion(@PathVariable Long id) {
         questionService.deleteQuestion(id);
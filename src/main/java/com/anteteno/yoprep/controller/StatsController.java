@@ -0,0 +1,50 @@
+package com.anteteno.yoprep.controller;
+
+import com.anteteno.yoprep.security.PasswordHasher;
+import com.anteteno.yoprep.service.AiCircuitBreaker;
+import com.anteteno.yoprep.service.AiRequestLimiter;
+import com.anteteno.yoprep.service.EvaluationCache;
+import com.anteteno.yoprep.service.UserIdentityCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final EvaluationCache evaluationCache;
+    private final AiRequestLimiter aiRequestLimiter;
+    private final AiCircuitBreaker aiCircuitBreaker;
+    private final PasswordHasher passwordHasher;
+    private final UserIdentityCache userIdentityCache;
+
+    @GetMapping("/evaluation-cache")
+    public Map<String, Object> getEvaluationCacheStats() {
+        return evaluationCache.stats();
+    }
+
+    @GetMapping("/ai-limiter")
+    public Map<String, Object> getAiLimiterStats() {
+        return aiRequestLimiter.stats();
+    }
+
+    @GetMapping("/ai-circuit")
+    public Map<String, Object> getAiCircuitStats() {
+        return aiCircuitBreaker.stats();
+    }
+
+    @GetMapping("/password-hashing")
+    public Map<String, Object> getPasswordHashingStats() {
+        return passwordHasher.stats();
+    }
+
+    @GetMapping("/user-cache")
+    public Map<String, Object> getUserCacheStats() {
+        return userIdentityCache.stats();
+    }
+}
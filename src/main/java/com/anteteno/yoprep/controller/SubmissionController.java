@@ -1,9 +1,16 @@
 package com.anteteno.yoprep.controller;
 
-import com.anteteno.yoprep.entity.Submission;
+import com.anteteno.yoprep.dto.SubmissionSummary;
+import com.anteteno.yoprep.dto.SubmissionView;
+import com.anteteno.yoprep.security.AuthenticatedUser;
+import com.anteteno.yoprep.service.AiEvaluationService;
 import com.anteteno.yoprep.service.SubmissionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -16,20 +23,58 @@ public class SubmissionController {
     private final SubmissionService submissionService;
 
     @PostMapping
-    public Submission createSubmission(@RequestBody Map<String, Object> body) {
-        Long userId = Long.valueOf(body.get("userId").toString());
+    public ResponseEntity<SubmissionView> createSubmission(@RequestBody Map<String, Object> body) {
+        Long userId = AuthenticatedUser.require().id();
         Long questionId = Long.valueOf(body.get("questionId").toString());
         String answerText = body.get("answerText").toString();
-        return submissionService.createSubmission(userId, questionId, answerText);
+
+        if (submissionService.isAsyncGrading()) {
+            return ResponseEntity.accepted()
+                    .body(SubmissionView.from(submissionService.submitForGrading(userId, questionId, answerText)));
+        }
+        return ResponseEntity.ok(SubmissionView.from(submissionService.createSubmission(userId, questionId, answerText)));
+    }
+
+    /**
+     * Same as POST /api/submissions, but streams the grading as Server-Sent Events:
+     * {@code submission} (the saved id), {@code feedback} text deltas, then {@code result}.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamSubmission(@RequestBody Map<String, Object> body) {
+        Long userId = AuthenticatedUser.require().id();
+        Long questionId = Long.valueOf(body.get("questionId").toString());
+        String answerText = body.get("answerText").toString();
+
+        SubmissionService.GradingStream stream = submissionService.streamSubmission(userId, questionId, answerText);
+
+        Flux<ServerSentEvent<Object>> grading = stream.events().map(event -> switch (event) {
+            case AiEvaluationService.EvaluationEvent.FeedbackDelta delta ->
+                    ServerSentEvent.<Object>builder(delta.text()).event("feedback").build();
+            case AiEvaluationService.EvaluationEvent.Completed completed ->
+                    ServerSentEvent.<Object>builder(Map.of(
+                            "grade", completed.result().grade(),
+                            "score", completed.result().score(),
+                            "feedback", completed.result().feedback()
+                    )).event("result").build();
+        });
+
+        return Flux.just(ServerSentEvent.<Object>builder(Map.of("id", stream.submission().getId()))
+                        .event("submission").build())
+                .concatWith(grading)
+                .onErrorResume(e -> Flux.just(ServerSentEvent.<Object>builder(Map.of("message", e.getMessage()))
+                        .event("error").build()));
     }
 
     @GetMapping("/user/{userId}")
-    public List<Submission> getByUser(@PathVariable Long userId) {
+    public List<SubmissionSummary> getByUser(@PathVariable Long userId) {
+        AuthenticatedUser.checkActingAs(userId);
         return submissionService.getByUserId(userId);
     }
 
     @GetMapping("/{id}")
-    public Submission getById(@PathVariable Long id) {
-        return submissionService.getById(id);
+    public SubmissionView getById(@PathVariable Long id) {
+        SubmissionView submission = submissionService.getById(id);
+        AuthenticatedUser.checkActingAs(submission.userId());
+        return submission;
     }
 }
@@ -0,0 +1,28 @@
+package com.anteteno.yoprep.controller;
+
+import com.anteteno.yoprep.security.AuthenticatedUser;
+import com.anteteno.yoprep.service.TokenUsageTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/usage")
+@RequiredArgsConstructor
+public class UsageController {
+
+    private final TokenUsageTracker tokenUsageTracker;
+
+    // Totals since startup, by subject, and the users and questions that spend the most tokens
+    @GetMapping
+    public Map<String, Object> getUsage(@RequestParam(defaultValue = "10") int limit) {
+        return tokenUsageTracker.stats(limit);
+    }
+
+    @GetMapping("/{userId}")
+    public Map<String, Object> getUserUsage(@PathVariable Long userId) {
+        AuthenticatedUser.checkActingAs(userId);
+        return tokenUsageTracker.userUsage(userId);
+    }
+}
@@ -1,6 +1,9 @@
 package com.anteteno.yoprep.controller;
 
+import com.anteteno.yoprep.dto.LoginResponse;
 import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.security.AuthTokenService;
+import com.anteteno.yoprep.security.AuthenticatedUser;
 import com.anteteno.yoprep.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +18,7 @@ public class UserController {
 
 
     private final UserService userService;
+    private final AuthTokenService authTokenService;
 
 
     @PostMapping
@@ -23,8 +27,10 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public User login(@RequestBody Map<String, String> credentials) {
-        return userService.login(credentials.get("username"), credentials.get("password"));
+    public LoginResponse login(@RequestBody Map<String, String> credentials) {
+        User user = userService.login(credentials.get("username"), credentials.get("password"));
+        AuthTokenService.IssuedToken token = authTokenService.issue(user.getId(), user.getUsername());
+        return new LoginResponse(user.getId(), user.getUsername(), user.getEmail(), token.token(), token.expiresAt());
     }
 
     @GetMapping("/{id}")
@@ -39,6 +45,8 @@ public class UserController {
 
     @DeleteMapping("/{id}")
     public String deleteUserById(@PathVariable Long id) {
+        AuthenticatedUser.checkActingAs(id);
+        userService.deleteUserById(id);
         return "User with ID " + id + " deleted successfully!";
     }
 }
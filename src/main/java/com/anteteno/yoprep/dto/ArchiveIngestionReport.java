@@ -0,0 +1,9 @@
+package com.anteteno.yoprep.dto;
+
+/**
+ * Outcome of ingesting a directory of exam pages. {@code duplicates} counts parsed questions
+ * skipped because their (examCode, questionNumber) already existed or appeared on an earlier page.
+ */
+public record ArchiveIngestionReport(int pages, int failedPages, int questionsFound, int duplicates,
+                                     long parseMillis, double pagesPerSecond, ImportReport load) {
+}
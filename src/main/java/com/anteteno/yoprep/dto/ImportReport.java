@@ -0,0 +1,14 @@
+package com.anteteno.yoprep.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk question import. Every entry in {@code batches} was committed on its own;
+ * {@code rejected} counts records skipped for missing {@code examCode} or {@code subject}.
+ */
+public record ImportReport(int imported, int rejected, long elapsedMillis, double questionsPerSecond,
+                           List<Batch> batches) {
+
+    public record Batch(int number, int size, int importedSoFar, long elapsedMillis, double questionsPerSecond) {
+    }
+}
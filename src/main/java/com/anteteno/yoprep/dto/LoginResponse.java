@@ -0,0 +1,10 @@
+package com.anteteno.yoprep.dto;
+
+import java.time.Instant;
+
+/**
+ * Result of a successful login: the user's public fields and a signed bearer token for
+ * {@code Authorization: Bearer <token>}, valid until {@code expiresAt}.
+ */
+public record LoginResponse(Long id, String username, String email, String token, Instant expiresAt) {
+}
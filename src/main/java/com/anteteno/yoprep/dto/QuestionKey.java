@@ -0,0 +1,7 @@
+package com.anteteno.yoprep.dto;
+
+/**
+ * Natural key of a question: its number within an exam.
+ */
+public record QuestionKey(String examCode, Integer questionNumber) {
+}
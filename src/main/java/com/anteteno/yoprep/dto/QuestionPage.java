@@ -0,0 +1,10 @@
+package com.anteteno.yoprep.dto;
+
+import java.util.List;
+
+/**
+ * One page of question summaries ordered by id. Pass {@code nextCursor} as {@code after}
+ * to get the next page; it is null on the last page.
+ */
+public record QuestionPage(List<QuestionSummary> items, Long nextCursor) {
+}
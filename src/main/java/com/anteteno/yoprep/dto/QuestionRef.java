@@ -0,0 +1,7 @@
+package com.anteteno.yoprep.dto;
+
+/**
+ * The few question fields a submission view needs to say which question was answered.
+ */
+public record QuestionRef(Long id, String subject, Integer questionNumber) {
+}
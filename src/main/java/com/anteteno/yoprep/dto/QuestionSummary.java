@@ -0,0 +1,15 @@
+package com.anteteno.yoprep.dto;
+
+/**
+ * List view of a question: everything but the correct answer, with the question text cut to a preview.
+ */
+public record QuestionSummary(Long id,
+                              String examCode,
+                              String subject,
+                              Integer questionNumber,
+                              Integer points,
+                              String difficulty,
+                              String questionPreview) {
+
+    public static final int PREVIEW_LENGTH = 200;
+}
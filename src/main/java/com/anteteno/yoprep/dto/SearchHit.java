@@ -0,0 +1,7 @@
+package com.anteteno.yoprep.dto;
+
+/**
+ * A search result: the matching question's summary and its BM25 score (higher is better).
+ */
+public record SearchHit(QuestionSummary question, double score) {
+}
@@ -0,0 +1,8 @@
+package com.anteteno.yoprep.dto;
+
+/**
+ * Per-subject totals of a user's submissions, computed by the database.
+ * {@code averageScore} and {@code bestScore} are null when no submission in the subject has a score.
+ */
+public record SubjectStats(String subject, long totalAnswers, Double averageScore, Integer bestScore) {
+}
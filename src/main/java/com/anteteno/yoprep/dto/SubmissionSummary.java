@@ -0,0 +1,22 @@
+package com.anteteno.yoprep.dto;
+
+import com.anteteno.yoprep.entity.GradingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of a user's submission history: no answer or feedback text, and only a reference to the question.
+ */
+public record SubmissionSummary(Long id,
+                                QuestionRef question,
+                                LocalDateTime submittedAt,
+                                String aiGrade,
+                                Integer aiScore,
+                                GradingStatus gradingStatus) {
+
+    // Flat form for JPQL constructor expressions
+    public SubmissionSummary(Long id, Long questionId, String subject, Integer questionNumber,
+                             LocalDateTime submittedAt, String aiGrade, Integer aiScore, GradingStatus gradingStatus) {
+        this(id, new QuestionRef(questionId, subject, questionNumber), submittedAt, aiGrade, aiScore, gradingStatus);
+    }
+}
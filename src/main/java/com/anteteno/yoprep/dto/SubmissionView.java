@@ -0,0 +1,44 @@
+package com.anteteno.yoprep.dto;
+
+import com.anteteno.yoprep.entity.GradingStatus;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.entity.Submission;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single submission with its answer and AI feedback. The user is reduced to an id
+ * and the question to a {@link QuestionRef}.
+ */
+public record SubmissionView(Long id,
+                             Long userId,
+                             QuestionRef question,
+                             String answerText,
+                             LocalDateTime submittedAt,
+                             String aiGrade,
+                             String aiFeedback,
+                             Integer aiScore,
+                             GradingStatus gradingStatus,
+                             Integer inputTokens,
+                             Integer outputTokens) {
+
+    /**
+     * Expects the question to be loaded; the user is only read for its id, which doesn't initialize a proxy.
+     */
+    public static SubmissionView from(Submission submission) {
+        Question question = submission.getQuestion();
+        return new SubmissionView(
+                submission.getId(),
+                submission.getUser().getId(),
+                new QuestionRef(question.getId(), question.getSubject(), question.getQuestionNumber()),
+                submission.getAnswerText(),
+                submission.getSubmittedAt(),
+                submission.getAiGrade(),
+                submission.getAiFeedback(),
+                submission.getAiScore(),
+                submission.getGradingStatus(),
+                submission.getInputTokens(),
+                submission.getOutputTokens()
+        );
+    }
+}
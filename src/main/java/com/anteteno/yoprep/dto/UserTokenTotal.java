@@ -0,0 +1,7 @@
+package com.anteteno.yoprep.dto;
+
+/**
+ * Tokens the AI grading spent on one user's submissions over some period, summed by the database.
+ */
+public record UserTokenTotal(Long userId, long tokens) {
+}
@@ -0,0 +1,10 @@
+package com.anteteno.yoprep.entity;
+
+public enum GradingStatus {
+    PENDING,
+    GRADED,
+    // AI provider was unavailable; picked up again by the re-grading job
+    AWAITING_REGRADE,
+    // The user's daily token budget was used up; graded by the same job once the budget resets
+    DEFERRED
+}
@@ -15,8 +15,10 @@ import lombok.NoArgsConstructor;
 public class Question {
 
 
+    // Sequence-backed (pooled-lo, see V3__question_id_sequence.sql) so bulk imports can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+    @SequenceGenerator(name = "question_seq", sequenceName = "question_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -28,7 +30,7 @@ public class Question {
     @Column
     private Integer questionNumber;
 
-    @Column
+    @Column(columnDefinition = "TEXT")
     private String questionText;
 
     @Column
@@ -0,0 +1,53 @@
+package com.anteteno.yoprep.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of a user's graded submissions in one subject, so progress is read
+ * without going through the submission history.
+ */
+@Entity
+@Table(name = "subject_progress", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "subject"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubjectProgress {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false)
+    private int answerCount;
+
+    @Column(nullable = false)
+    private long scoreSum;
+
+    private Integer bestScore;
+
+    private LocalDateTime lastSubmittedAt;
+
+    public void record(Integer score, LocalDateTime submittedAt) {
+        answerCount++;
+        if (score != null) {
+            scoreSum += score;
+            bestScore = bestScore == null ? score : Math.max(bestScore, score);
+        }
+        if (submittedAt != null && (lastSubmittedAt == null || submittedAt.isAfter(lastSubmittedAt))) {
+            lastSubmittedAt = submittedAt;
+        }
+    }
+}
@@ -3,14 +3,18 @@ package com.anteteno.yoprep.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "submissions")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -20,11 +24,13 @@ public class Submission {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "question_id", nullable = false)
     private Question question;
 
@@ -40,8 +46,36 @@ public class Submission {
 
     private Integer aiScore;
 
+    private Integer inputTokens;
+
+    private Integer outputTokens;
+
+    // Set when the AI result is applied; the daily budget counts tokens by the day they were spent
+    private LocalDateTime gradedAt;
+
+    // Set each time the answer is sent for grading; a PENDING row whose attempt is too old was lost
+    private LocalDateTime gradingStartedAt;
+
+    @Enumerated(EnumType.STRING)
+    private GradingStatus gradingStatus;
+
     @PrePersist
     protected void onCreate() {
         submittedAt = LocalDateTime.now();
     }
+
+    // By id, so comparing never loads the LAZY user and question; instanceof also matches a Hibernate proxy
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Submission other && id != null && id.equals(other.getId());
+    }
+
+    // Constant per class: the id is only assigned on save, and the hash must not change then
+    @Override
+    public int hashCode() {
+        return Submission.class.hashCode();
+    }
 }
@@ -0,0 +1,14 @@
+package com.anteteno.yoprep.event;
+
+/**
+ * Published by QuestionService whenever a question is created, updated or deleted,
+ * so anything derived from question data can refresh itself.
+ */
+public record QuestionChangedEvent(Long questionId, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
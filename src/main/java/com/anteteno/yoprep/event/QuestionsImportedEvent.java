@@ -0,0 +1,10 @@
+package com.anteteno.yoprep.event;
+
+import java.util.List;
+
+/**
+ * Published by QuestionImportService after each committed import batch. One event per batch
+ * instead of a {@link QuestionChangedEvent} per row, so listeners can apply the batch in one step.
+ */
+public record QuestionsImportedEvent(List<Long> questionIds) {
+}
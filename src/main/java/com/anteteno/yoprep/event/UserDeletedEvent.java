@@ -0,0 +1,8 @@
+package com.anteteno.yoprep.event;
+
+/**
+ * Published by UserService when a user is deleted. Listeners that cache anything about the
+ * user handle it after the transaction commits, so a rollback leaves their entries in place.
+ */
+public record UserDeletedEvent(Long userId) {
+}
@@ -1,7 +1,34 @@
 package com.anteteno.yoprep.repository;
 
+import com.anteteno.yoprep.dto.QuestionKey;
+import com.anteteno.yoprep.dto.QuestionSummary;
 import com.anteteno.yoprep.entity.Question;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface QuestionRepository extends JpaRepository<Question, Long> {
+
+    // Keyset pagination: seeks past the last id seen instead of counting an offset
+    @Query("select new com.anteteno.yoprep.dto.QuestionSummary(q.id, q.examCode, q.subject, q.questionNumber, "
+            + "q.points, q.difficulty, substring(q.questionText, 1, " + QuestionSummary.PREVIEW_LENGTH + ")) "
+            + "from Question q "
+            + "where q.id > :after "
+            + "and (:subject is null or q.subject = :subject) "
+            + "and (:examCode is null or q.examCode = :examCode) "
+            + "and (:difficulty is null or q.difficulty = :difficulty) "
+            + "order by q.id")
+    List<QuestionSummary> findSummariesAfter(@Param("after") long after,
+                                             @Param("subject") String subject,
+                                             @Param("examCode") String examCode,
+                                             @Param("difficulty") String difficulty,
+                                             Limit limit);
+
+    @Query("select new com.anteteno.yoprep.dto.QuestionKey(q.examCode, q.questionNumber) "
+            + "from Question q where q.examCode in :examCodes")
+    List<QuestionKey> findKeysByExamCodeIn(@Param("examCodes") Collection<String> examCodes);
 }
@@ -0,0 +1,21 @@
+package com.anteteno.yoprep.repository;
+
+import com.anteteno.yoprep.entity.SubjectProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SubjectProgressRepository extends JpaRepository<SubjectProgress, Long> {
+
+    List<SubjectProgress> findByUserIdOrderBySubject(Long userId);
+
+    Optional<SubjectProgress> findByUserIdAndSubject(Long userId, String subject);
+
+    @Modifying
+    @Query("delete from SubjectProgress p where p.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,13 +1,59 @@
 package com.anteteno.yoprep.repository;
 
+import com.anteteno.yoprep.dto.SubjectStats;
+import com.anteteno.yoprep.dto.SubmissionSummary;
+import com.anteteno.yoprep.dto.UserTokenTotal;
+import com.anteteno.yoprep.entity.GradingStatus;
 import com.anteteno.yoprep.entity.Submission;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface SubmissionRepository extends JpaRepository<Submission, Long> {
 
     List<Submission> findByUserId(Long userId);
 
     List<Submission> findByUserIdAndQuestionId(Long userId, Long questionId);
+
+    // The question is fetched with the batch because grading reads it after the session is closed
+    @EntityGraph(attributePaths = "question")
+    List<Submission> findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus gradingStatus);
+
+    @EntityGraph(attributePaths = "question")
+    List<Submission> findTop50ByGradingStatusAndGradingStartedAtBeforeOrderBySubmittedAtAsc(
+            GradingStatus gradingStatus, LocalDateTime startedBefore);
+
+    @EntityGraph(attributePaths = "question")
+    Optional<Submission> findWithQuestionById(Long id);
+
+    @Query("select new com.anteteno.yoprep.dto.SubmissionSummary(s.id, q.id, q.subject, q.questionNumber, "
+            + "s.submittedAt, s.aiGrade, s.aiScore, s.gradingStatus) "
+            + "from Submission s join s.question q "
+            + "where s.user.id = :userId "
+            + "order by s.id")
+    List<SubmissionSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Grouped in SQL: returns one row per subject instead of every submission with its texts
+    @Query("select new com.anteteno.yoprep.dto.SubjectStats(q.subject, count(s), avg(s.aiScore), max(s.aiScore)) "
+            + "from Submission s join s.question q "
+            + "where s.user.id = :userId "
+            + "group by q.subject "
+            + "order by q.subject")
+    List<SubjectStats> aggregateByUserIdGroupBySubject(@Param("userId") Long userId);
+
+    @Query("select new com.anteteno.yoprep.dto.UserTokenTotal(s.user.id, sum(s.inputTokens + s.outputTokens)) "
+            + "from Submission s "
+            + "where s.gradedAt >= :since and s.inputTokens is not null "
+            + "group by s.user.id")
+    List<UserTokenTotal> sumTokensByUserSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("delete from Submission s where s.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
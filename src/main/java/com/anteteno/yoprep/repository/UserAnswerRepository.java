@@ -2,6 +2,9 @@ package com.anteteno.yoprep.repository;
 
 import com.anteteno.yoprep.entity.UserAnswer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -9,4 +12,8 @@ public interface UserAnswerRepository extends JpaRepository<UserAnswer, Long> {
 
     List<UserAnswer> findByUserId(Long userId);
     List<UserAnswer> findByUserIdAndQuestionId(Long userId, Long questionId);
+
+    @Modifying
+    @Query("delete from UserAnswer a where a.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
@@ -1,10 +1,25 @@
 package com.anteteno.yoprep.repository;
 
 import com.anteteno.yoprep.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     User findUserByUsername(String username);
     User findUserByEmail(String email);
+
+    // Registration's uniqueness check in one round trip: usernames of rows clashing on either column
+    @Query("select u.username from User u where u.username = :username or u.email = :email")
+    List<String> findUsernamesByUsernameOrEmail(@Param("username") String username, @Param("email") String email);
+
+    // Row lock that serializes updates to one user's progress rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<User> findForUpdateById(Long id);
 }
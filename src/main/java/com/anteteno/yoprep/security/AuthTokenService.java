@@ -0,0 +1,95 @@
+package com.anteteno.yoprep.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies short-lived HMAC-SHA256 signed tokens of the form
+ * {@code userId.base64url(username).expiresAtEpochSecond.base64url(signature)}. Verification is
+ * local: no database or session store is involved, so the id in a valid token is trusted as is.
+ */
+@Slf4j
+@Service
+public class AuthTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record IssuedToken(String token, Instant expiresAt) {}
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public AuthTokenService(@Value("${auth.token.secret:}") String secret,
+                            @Value("${auth.token.ttl:2h}") Duration ttl,
+                            Optional<Clock> clock) {
+        byte[] keyBytes;
+        if (secret.isBlank()) {
+            // Tokens then stop verifying after a restart (and across instances): users log in again
+            log.warn("auth.token.secret is not set, signing tokens with a random per-process key");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = ttl;
+        this.clock = clock.orElseGet(Clock::systemUTC);
+    }
+
+    public IssuedToken issue(Long userId, String username) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        String payload = userId + "." + ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8))
+                + "." + expiresAt.getEpochSecond();
+        return new IssuedToken(payload + "." + ENCODER.encodeToString(sign(payload)), expiresAt);
+    }
+
+    /**
+     * The user a token was issued to, or empty if it is malformed, tampered with or expired.
+     */
+    public Optional<AuthenticatedUser> verify(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 4) {
+            return Optional.empty();
+        }
+        try {
+            String payload = parts[0] + "." + parts[1] + "." + parts[2];
+            if (!MessageDigest.isEqual(sign(payload), DECODER.decode(parts[3]))) {
+                return Optional.empty();
+            }
+            if (clock.instant().getEpochSecond() >= Long.parseLong(parts[2])) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(Long.valueOf(parts[0]),
+                    new String(DECODER.decode(parts[1]), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            // Mac instances are not thread-safe; creating one is cheap next to the request
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.anteteno.yoprep.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+
+/**
+ * The caller as stated by a verified token. Built from the token alone, without a database lookup.
+ */
+public record AuthenticatedUser(Long id, String username) {
+
+    /**
+     * The token-authenticated caller of the current request, if any.
+     */
+    public static Optional<AuthenticatedUser> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? Optional.of(user)
+                : Optional.empty();
+    }
+
+    /**
+     * The token-authenticated caller of the current request; 401 without a valid token.
+     */
+    public static AuthenticatedUser require() {
+        return current().orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Login required"));
+    }
+
+    /**
+     * Rejects a caller without a token (401) or acting on another user's data (403).
+     */
+    public static void checkActingAs(Long userId) {
+        if (!require().id().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Token belongs to another user");
+        }
+    }
+}
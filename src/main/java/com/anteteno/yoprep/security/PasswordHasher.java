@@ -0,0 +1,160 @@
+package com.anteteno.yoprep.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt hashing on a small dedicated pool, so a login storm queues here (and is turned away with
+ * 503 once the queue is full) instead of pinning every request thread on the CPU. The cost is
+ * {@code auth.password.bcrypt-cost}, or with 0 the highest cost whose measured hash time still fits
+ * {@code auth.password.latency-budget}. Hashes stored with a lower cost report {@link #needsRehash},
+ * so they move up to the current cost on the next successful login. Higher costs are kept: a
+ * calibration that lands a step lower on a slower or busier instance must not downgrade them.
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    // OWASP floor; calibration never goes below it even if the budget is too tight
+    static final int MIN_COST = 10;
+    static final int MAX_COST = 16;
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final int cost;
+    private final long measuredMillis;
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final int queueCapacity;
+    private final Duration maxWait;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public PasswordHasher(@Value("${auth.password.bcrypt-cost:0}") int configuredCost,
+                          @Value("${auth.password.latency-budget:250ms}") Duration latencyBudget,
+                          @Value("${auth.password.threads:0}") int threads,
+                          @Value("${auth.password.queue-capacity:100}") int queueCapacity,
+                          @Value("${auth.password.max-wait:5s}") Duration maxWait) {
+        this.cost = configuredCost > 0 ? configuredCost : calibrate(latencyBudget);
+        this.measuredMillis = measure(cost);
+        if (measuredMillis > latencyBudget.toMillis()) {
+            log.warn("BCrypt cost {} takes {} ms, over the {} ms latency budget",
+                    cost, measuredMillis, latencyBudget.toMillis());
+        } else {
+            log.info("BCrypt cost {} takes {} ms (budget {} ms)", cost, measuredMillis, latencyBudget.toMillis());
+        }
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.queueCapacity = queueCapacity;
+        this.maxWait = maxWait;
+
+        // Hashing is pure CPU: more threads than cores only adds latency for everyone
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String hash) {
+        return run(() -> encoder.matches(rawPassword, hash));
+    }
+
+    /**
+     * True if {@code hash} was made with a lower cost than the current one (or isn't BCrypt).
+     */
+    public boolean needsRehash(String hash) {
+        Matcher matcher = BCRYPT_COST.matcher(hash == null ? "" : hash);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public Map<String, Object> stats() {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cost", cost);
+        stats.put("measuredHashMillis", measuredMillis);
+        stats.put("threads", pool.getMaximumPoolSize());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", pool.getCompletedTaskCount());
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) {
+            rejected.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many logins right now, try again shortly");
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many logins right now, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Each cost step doubles the work, so one measurement at the floor predicts the rest
+    static int calibrate(Duration latencyBudget) {
+        long floorMillis = Math.max(measure(MIN_COST), 1);
+        int cost = MIN_COST;
+        while (cost < MAX_COST && floorMillis << (cost + 1 - MIN_COST) <= latencyBudget.toMillis()) {
+            cost++;
+        }
+        return cost;
+    }
+
+    private static long measure(int cost) {
+        // A cheap hash first, so class loading and JIT warm-up don't count
+        new BCryptPasswordEncoder(4).encode("calibration");
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
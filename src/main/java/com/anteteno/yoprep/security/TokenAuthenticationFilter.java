@@ -0,0 +1,47 @@
+package com.anteteno.yoprep.security;
+
+import com.anteteno.yoprep.service.UserIdentityCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates {@code Authorization: Bearer <token>} requests from the signature, plus a check
+ * against {@link UserIdentityCache} that the user still exists (a cache hit, so normally no query).
+ * Requests without a valid token pass through anonymously, including one that is expired or whose
+ * user was deleted: public routes still work, and protected ones get 401 from SecurityConfig.
+ */
+@RequiredArgsConstructor
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final AuthTokenService authTokenService;
+    private final UserIdentityCache userIdentityCache;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<AuthenticatedUser> user = authTokenService.verify(header.substring(BEARER.length()).strip())
+                .filter(verified -> userIdentityCache.get(verified.id()).isPresent());
+        user.ifPresent(authenticated -> SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(authenticated, null, List.of())));
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,30 @@
+package com.anteteno.yoprep.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Thrown when outbound AI capacity is exhausted. Carries a Retry-After header instead of
+ * letting the request degrade into a fallback grade.
+ */
+public class AiCapacityExceededException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public AiCapacityExceededException(HttpStatus status, String reason, long retryAfterSeconds) {
+        super(status, reason);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,202 @@
+package com.anteteno.yoprep.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count-based circuit breaker for calls to the AI provider. Opens when the share of failed
+ * or slow calls in the last {@code windowSize} calls crosses the threshold, fails fast while
+ * open, and lets a few trial calls through (half-open) once {@code openDuration} has passed.
+ */
+@Component
+public class AiCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenPermits;
+
+    // all state below is guarded by this
+    private final boolean[] window;
+    private int windowIndex;
+    private int recordedCalls;
+    private int badCalls;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+    public AiCircuitBreaker(@Value("${grading.circuit.window-size:20}") int windowSize,
+                            @Value("${grading.circuit.minimum-calls:10}") int minimumCalls,
+                            @Value("${grading.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+                            @Value("${grading.circuit.slow-call-threshold:20s}") Duration slowCallThreshold,
+                            @Value("${grading.circuit.open-duration:30s}") Duration openDuration,
+                            @Value("${grading.circuit.half-open-permits:3}") int halfOpenPermits) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenPermits = halfOpenPermits;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * Provider-side failures that say nothing about the request itself: throttling, 5xx,
+     * overload, connection problems and timeouts. These count against the circuit and are retried.
+     */
+    public static boolean isTransientFailure(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    /**
+     * Runs {@code call} through the breaker. While open, subscribers get {@link AiUnavailableException} immediately.
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(new AiUnavailableException("AI provider circuit is open"));
+            }
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(value -> onResult(System.nanoTime() - start > slowCallNanos))
+                    .doOnError(e -> onResult(isTransientFailure(e)))
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    /**
+     * Streaming variant of {@link #protect(Mono)}. A stream counts as slow when its first
+     * element takes longer than the threshold; total duration depends on the answer length.
+     */
+    public <T> Flux<T> protect(Flux<T> call) {
+        return Flux.defer(() -> {
+            if (!tryAcquire()) {
+                return Flux.error(new AiUnavailableException("AI provider circuit is open"));
+            }
+            long start = System.nanoTime();
+            AtomicLong firstElementAt = new AtomicLong();
+            return call
+                    .doOnNext(value -> firstElementAt.compareAndSet(0, System.nanoTime()))
+                    .doOnComplete(() -> {
+                        long first = firstElementAt.get() == 0 ? System.nanoTime() : firstElementAt.get();
+                        onResult(first - start > slowCallNanos);
+                    })
+                    .doOnError(e -> onResult(isTransientFailure(e)))
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    /**
+     * True unless the circuit is open and still cooling down.
+     */
+    public synchronized boolean isCallPermitted() {
+        return state != State.OPEN || System.nanoTime() - openedAt >= openNanos;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        return Map.of(
+                "state", state.name(),
+                "recordedCalls", recordedCalls,
+                "failureRate", recordedCalls == 0 ? 0.0 : Math.round(100.0 * badCalls / recordedCalls) / 100.0
+        );
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenInFlight = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenPermits) {
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    synchronized void onResult(boolean failed) {
+        switch (state) {
+            case HALF_OPEN -> {
+                halfOpenInFlight--;
+                if (failed) {
+                    open();
+                } else if (++halfOpenSuccesses >= halfOpenPermits) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                record(failed);
+                if (recordedCalls >= minimumCalls && (double) badCalls / recordedCalls >= failureRateThreshold) {
+                    open();
+                }
+            }
+            case OPEN -> {
+                // late result of a call started before the circuit opened
+            }
+        }
+    }
+
+    private synchronized void onCancel() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == windowSize) {
+            if (window[windowIndex]) {
+                badCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            badCalls++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recordedCalls = 0;
+        badCalls = 0;
+        windowIndex = 0;
+    }
+}
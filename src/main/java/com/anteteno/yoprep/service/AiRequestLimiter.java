@@ -0,0 +1,194 @@
+package com.anteteno.yoprep.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Gates outbound AI requests with a token bucket (rate) and a max-concurrency limit; one
+ * permit is one HTTP request, however many answers it grades.
+ * Waiting work is queued per user and dispatched round-robin, so one user
+ * submitting in a loop can't starve everyone else. Full queues are rejected
+ * up front with Retry-After instead of producing a degraded grade.
+ */
+@Component
+public class AiRequestLimiter {
+
+    /**
+     * Queue for batched requests, which grade several users' answers at once: they take their turn
+     * in the rotation like one more user, and only the global queue limit applies to them.
+     */
+    public static final Long BATCH_KEY = -1L;
+
+    private final double ratePerSecond;
+    private final double burst;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final int maxQueuedPerUser;
+
+    // all state below is guarded by this
+    private final Map<Long, Deque<Runnable>> queues = new HashMap<>();
+    private final Deque<Long> rotation = new ArrayDeque<>();
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private int inFlight;
+    private int queued;
+    private long rejected;
+    private boolean refillScheduled;
+
+    public AiRequestLimiter(@Value("${grading.limiter.rate-per-second:5}") double ratePerSecond,
+                            @Value("${grading.limiter.burst:10}") double burst,
+                            @Value("${grading.limiter.max-concurrent:20}") int maxConcurrent,
+                            @Value("${grading.limiter.max-queued:500}") int maxQueued,
+                            @Value("${grading.limiter.max-queued-per-user:5}") int maxQueuedPerUser) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+        this.tokens = burst;
+    }
+
+    /**
+     * Queues {@code call} for {@code userId}. Admission is decided immediately: a full queue throws
+     * {@link AiCapacityExceededException} (429 for a user over their share, 503 when everything is full).
+     */
+    public <T> Mono<T> submit(Long userId, Supplier<Mono<T>> call) {
+        Sinks.One<T> sink = Sinks.one();
+        enqueue(userId, () -> Mono.defer(call)
+                .doFinally(signal -> release())
+                .subscribe(sink::tryEmitValue, sink::tryEmitError, sink::tryEmitEmpty));
+        return sink.asMono();
+    }
+
+    /**
+     * Streaming variant of {@link #submit}: the permit is held until the stream terminates.
+     * The call runs to completion even if the returned Flux is cancelled.
+     */
+    public <T> Flux<T> submitMany(Long userId, Supplier<Flux<T>> call) {
+        Sinks.Many<T> sink = Sinks.many().unicast().onBackpressureBuffer();
+        enqueue(userId, () -> Flux.defer(call)
+                .doFinally(signal -> release())
+                .subscribe(sink::tryEmitNext, sink::tryEmitError, sink::tryEmitComplete));
+        return sink.asFlux();
+    }
+
+    /**
+     * Throws what {@link #submit} would throw for {@code userId} right now, without queueing
+     * anything. Lets callers turn work away before saving it; the permit itself is only taken
+     * when the outbound call is made.
+     */
+    public synchronized void checkCapacity(Long userId) {
+        AiCapacityExceededException full = capacityExceeded(userId);
+        if (full != null) {
+            rejected++;
+            throw full;
+        }
+    }
+
+    private void enqueue(Long userId, Runnable start) {
+        synchronized (this) {
+            checkCapacity(userId);
+            Deque<Runnable> userQueue = queues.computeIfAbsent(userId, id -> new ArrayDeque<>());
+            if (userQueue.isEmpty()) {
+                rotation.addLast(userId);
+            }
+            userQueue.addLast(start);
+            queued++;
+        }
+
+        drain();
+    }
+
+    private AiCapacityExceededException capacityExceeded(Long userId) {
+        if (queued >= maxQueued) {
+            return new AiCapacityExceededException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "AI grading is at capacity, try again later", retryAfterSeconds(queued));
+        }
+        Deque<Runnable> userQueue = queues.get(userId);
+        int waiting = userQueue == null ? 0 : userQueue.size();
+        if (waiting >= maxQueuedPerUser && !BATCH_KEY.equals(userId)) {
+            return new AiCapacityExceededException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many answers waiting for grading, try again later", retryAfterSeconds(waiting));
+        }
+        return null;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        refill();
+        return Map.of(
+                "inFlight", inFlight,
+                "queued", queued,
+                "queuedUsers", rotation.size(),
+                "availableTokens", Math.floor(tokens),
+                "rejected", rejected
+        );
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    private void drain() {
+        List<Runnable> ready = new ArrayList<>();
+
+        synchronized (this) {
+            refill();
+            while (inFlight < maxConcurrent && tokens >= 1 && !rotation.isEmpty()) {
+                Long userId = rotation.pollFirst();
+                Deque<Runnable> userQueue = queues.get(userId);
+                ready.add(userQueue.pollFirst());
+                if (userQueue.isEmpty()) {
+                    queues.remove(userId);
+                } else {
+                    rotation.addLast(userId);
+                }
+                queued--;
+                inFlight++;
+                tokens -= 1;
+            }
+
+            // Out of tokens but work is waiting: wake up when the next token is due
+            if (!rotation.isEmpty() && inFlight < maxConcurrent && !refillScheduled) {
+                refillScheduled = true;
+                long delayMillis = (long) Math.ceil((1 - tokens) / ratePerSecond * 1000);
+                Schedulers.parallel().schedule(this::onRefill, Math.max(delayMillis, 1), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        ready.forEach(Runnable::run);
+    }
+
+    private void onRefill() {
+        synchronized (this) {
+            refillScheduled = false;
+        }
+        drain();
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * ratePerSecond);
+        lastRefillNanos = now;
+    }
+
+    private long retryAfterSeconds(int waiting) {
+        return Math.max(1, (long) Math.ceil(waiting / ratePerSecond));
+    }
+}
@@ -0,0 +1,16 @@
+package com.anteteno.yoprep.service;
+
+/**
+ * The AI provider could not be reached (circuit open, or transient errors after all retries).
+ * Unlike a bad response, this says nothing about the answer, so it must not become a grade.
+ */
+public class AiUnavailableException extends RuntimeException {
+
+    public AiUnavailableException(String message) {
+        super(message);
+    }
+
+    public AiUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
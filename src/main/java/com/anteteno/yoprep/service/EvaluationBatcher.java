@@ -0,0 +1,117 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects evaluations of the same question for a short window (or until the batch is full)
+ * and grades them with a single AI request, handing each caller its own result. The request
+ * takes one limiter permit in the shared {@link AiRequestLimiter#BATCH_KEY} queue: it grades
+ * several users' answers, so none of their own queues is charged for it.
+ */
+@Component
+public class EvaluationBatcher {
+
+    private final AiEvaluationService aiEvaluationService;
+    private final EvaluationCache evaluationCache;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxSize;
+    private final Scheduler timer = Schedulers.parallel();
+
+    // guarded by this
+    private final Map<Long, Batch> openBatches = new HashMap<>();
+
+    public EvaluationBatcher(AiEvaluationService aiEvaluationService,
+                             EvaluationCache evaluationCache,
+                             @Value("${grading.batch.enabled:true}") boolean enabled,
+                             @Value("${grading.batch.window:250ms}") Duration window,
+                             @Value("${grading.batch.max-size:10}") int maxSize) {
+        this.aiEvaluationService = aiEvaluationService;
+        this.evaluationCache = evaluationCache;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxSize = maxSize;
+    }
+
+    private record PendingEvaluation(String answerText, Sinks.One<AiEvaluationService.EvaluationResult> sink) {}
+
+    private static final class Batch {
+        private final Question question;
+        private final List<PendingEvaluation> entries = new ArrayList<>();
+
+        private Batch(Question question) {
+            this.question = question;
+        }
+    }
+
+    public Mono<AiEvaluationService.EvaluationResult> evaluate(Question question, String answerText, Long userId) {
+        if (!enabled || question.getId() == null || maxSize <= 1) {
+            return aiEvaluationService.evaluate(question, answerText, userId);
+        }
+
+        // Cached answers shouldn't wait for the batch window
+        return Mono.justOrEmpty(evaluationCache.get(question.getId(), answerText))
+                .switchIfEmpty(Mono.defer(() -> enqueue(question, answerText)));
+    }
+
+    private Mono<AiEvaluationService.EvaluationResult> enqueue(Question question, String answerText) {
+        Sinks.One<AiEvaluationService.EvaluationResult> sink = Sinks.one();
+        Batch full = null;
+
+        synchronized (this) {
+            Batch batch = openBatches.get(question.getId());
+            if (batch == null) {
+                Batch opened = new Batch(question);
+                openBatches.put(question.getId(), opened);
+                timer.schedule(() -> flushIfOpen(opened), window.toMillis(), TimeUnit.MILLISECONDS);
+                batch = opened;
+            }
+            batch.entries.add(new PendingEvaluation(answerText, sink));
+            if (batch.entries.size() >= maxSize) {
+                openBatches.remove(question.getId());
+                full = batch;
+            }
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return sink.asMono();
+    }
+
+    private void flushIfOpen(Batch batch) {
+        synchronized (this) {
+            if (!openBatches.remove(batch.question.getId(), batch)) {
+                return; // already dispatched because it filled up
+            }
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        List<PendingEvaluation> entries = batch.entries;
+        List<String> answers = entries.stream().map(PendingEvaluation::answerText).toList();
+
+        aiEvaluationService.evaluateBatch(batch.question, answers, AiRequestLimiter.BATCH_KEY).subscribe(
+                results -> {
+                    for (int i = 0; i < entries.size(); i++) {
+                        entries.get(i).sink().tryEmitValue(results.get(i));
+                    }
+                },
+                e -> entries.forEach(entry -> entry.sink().tryEmitError(e))
+        );
+    }
+}
@@ -0,0 +1,118 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.event.QuestionChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size-bounded, TTL-evicting cache of AI evaluations keyed by question id and normalized answer text.
+ * Each question has a generation that {@link #invalidateQuestion} bumps; an evaluation that started
+ * before the question changed is not stored when it completes.
+ */
+@Component
+public class EvaluationCache {
+
+    public record Key(Long questionId, String answerHash) {}
+
+    private final Cache<Key, AiEvaluationService.EvaluationResult> cache;
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public EvaluationCache(@Value("${grading.cache.max-size:10000}") long maxSize,
+                           @Value("${grading.cache.ttl:6h}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<AiEvaluationService.EvaluationResult> get(Long questionId, String answerText) {
+        if (questionId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(key(questionId, answerText)));
+    }
+
+    /**
+     * Current generation of the question; capture it before the lookup and hand it to
+     * {@link #put(Long, String, AiEvaluationService.EvaluationResult, long)}.
+     */
+    public long generation(Long questionId) {
+        return questionId == null ? 0 : generations.getOrDefault(questionId, 0L);
+    }
+
+    public void put(Long questionId, String answerText, AiEvaluationService.EvaluationResult result) {
+        put(questionId, answerText, result, generation(questionId));
+    }
+
+    /**
+     * Stores the result unless the question was invalidated since {@code generation} was read.
+     */
+    public void put(Long questionId, String answerText, AiEvaluationService.EvaluationResult result,
+                    long generation) {
+        if (questionId == null || generation(questionId) != generation) {
+            return;
+        }
+        Key key = key(questionId, answerText);
+        // A cache hit costs no tokens, so the stored copy carries none
+        cache.put(key, result.withoutUsage());
+        // An invalidation between the check and the put may have missed this entry
+        if (generation(questionId) != generation) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateQuestion(Long questionId) {
+        generations.merge(questionId, 1L, Long::sum);
+        cache.asMap().keySet().removeIf(key -> key.questionId().equals(questionId));
+    }
+
+    @EventListener
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        if (event.type() != QuestionChangedEvent.Type.CREATED) {
+            invalidateQuestion(event.questionId());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        return Map.of(
+                "size", cache.estimatedSize(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount(),
+                "hitRate", Math.round(stats.hitRate() * 1000.0) / 1000.0
+        );
+    }
+
+    static Key key(Long questionId, String answerText) {
+        return new Key(questionId, hash(normalize(answerText)));
+    }
+
+    static String normalize(String answerText) {
+        return answerText == null ? "" : answerText.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String hash(String normalized) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.ArchiveIngestionReport;
+import com.anteteno.yoprep.dto.ImportReport;
+import com.anteteno.yoprep.dto.QuestionKey;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Turns a directory of saved exam pages into questions: pages are parsed in parallel, questions
+ * whose (examCode, questionNumber) already exist are dropped and the rest go through the batched
+ * bulk import.
+ */
+@Slf4j
+@Service
+public class ExamArchiveIngestionService {
+
+    private final QuestionRepository questionRepository;
+    private final QuestionImportService questionImportService;
+    private final ExamPageParser parser = new ExamPageParser();
+    private final Path archiveRoot;
+    private final int parallelism;
+
+    public ExamArchiveIngestionService(QuestionRepository questionRepository,
+                                       QuestionImportService questionImportService,
+                                       @Value("${questions.archive.directory:./exam-archive}") Path archiveRoot,
+                                       @Value("${questions.archive.parallelism:0}") int parallelism) {
+        this.questionRepository = questionRepository;
+        this.questionImportService = questionImportService;
+        this.archiveRoot = archiveRoot.toAbsolutePath().normalize();
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Ingests every .html/.htm page under {@code subdirectory} of the archive root (the whole
+     * archive when null). Synchronized so two runs can't both pass the duplicate check.
+     */
+    public synchronized ArchiveIngestionReport ingest(String subdirectory) throws IOException {
+        List<Path> pages = findPages(resolve(subdirectory));
+
+        long start = System.nanoTime();
+        List<List<Question>> parsed = parseInParallel(pages);
+        long parseMillis = (System.nanoTime() - start) / 1_000_000;
+        int failedPages = (int) parsed.stream().filter(questions -> questions == null).count();
+
+        Map<QuestionKey, Question> unique = new LinkedHashMap<>();
+        int found = 0;
+        for (List<Question> questions : parsed) {
+            if (questions == null) {
+                continue;
+            }
+            found += questions.size();
+            questions.forEach(question -> unique.putIfAbsent(key(question), question));
+        }
+        Set<String> examCodes = unique.keySet().stream().map(QuestionKey::examCode).collect(Collectors.toSet());
+        Set<QuestionKey> existing = examCodes.isEmpty()
+                ? Set.of()
+                : new HashSet<>(questionRepository.findKeysByExamCodeIn(examCodes));
+        List<Question> fresh = unique.entrySet().stream()
+                .filter(entry -> !existing.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+
+        ImportReport load = questionImportService.importQuestions(fresh, null);
+        double pagesPerSecond = Math.round(pages.size() * 1000.0 / Math.max(parseMillis, 1) * 10) / 10.0;
+        log.info("Ingested {} pages ({} failed) in {} ms on {} threads, {} pages/s: {} questions found, {} new",
+                pages.size(), failedPages, parseMillis, parallelism, pagesPerSecond, found, load.imported());
+        return new ArchiveIngestionReport(pages.size(), failedPages, found, found - fresh.size(),
+                parseMillis, pagesPerSecond, load);
+    }
+
+    private Path resolve(String subdirectory) {
+        Path directory = subdirectory == null ? archiveRoot : archiveRoot.resolve(subdirectory).normalize();
+        if (!directory.startsWith(archiveRoot)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Path must stay inside the exam archive");
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such archive directory: " + subdirectory);
+        }
+        return directory;
+    }
+
+    private static List<Path> findPages(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> {
+                        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+                        return name.endsWith(".html") || name.endsWith(".htm");
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Parses pages on a pool sized to the cores (parsing is CPU-bound). Results keep the page
+     * order so the first occurrence of a duplicate wins deterministically; a page that fails to
+     * parse is logged and yields null.
+     */
+    private List<List<Question>> parseInParallel(List<Path> pages) {
+        List<Callable<List<Question>>> tasks = pages.stream()
+                .<Callable<List<Question>>>map(page -> () -> parser.parse(page))
+                .toList();
+
+        List<List<Question>> results = new ArrayList<>(pages.size());
+        try (ExecutorService pool = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<List<Question>>> futures = pool.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    log.warn("Failed to parse exam page {}: {}", pages.get(i), e.getCause().toString());
+                    results.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Archive ingestion interrupted");
+        }
+        return results;
+    }
+
+    private static QuestionKey key(Question question) {
+        return new QuestionKey(question.getExamCode(), question.getQuestionNumber());
+    }
+}
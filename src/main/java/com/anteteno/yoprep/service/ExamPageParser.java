@@ -0,0 +1,126 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses a saved exam page into questions. The exam code comes from
+ * {@code <meta name="exam-code">} or the file name ({@code pmat_k2025.html}), the subject from
+ * {@code <meta name="subject">} or the exam code prefix. Each question is an element with class
+ * {@code question}; its number is {@code data-question-number} or the leading number of its
+ * heading, the text is {@code .question-text} and the points are the number in {@code .max-score}.
+ * Stateless, safe to share between threads.
+ */
+class ExamPageParser {
+
+    private static final Pattern LEADING_NUMBER = Pattern.compile("^\\s*(\\d+)");
+    private static final Pattern ANY_NUMBER = Pattern.compile("(\\d+)");
+
+    // Exam code prefixes as used in the archive file names (pmat_k2025 -> mathematics)
+    private static final Map<String, String> SUBJECTS = Map.ofEntries(
+            Map.entry("mat", "mathematics"),
+            Map.entry("fys", "physics"),
+            Map.entry("kem", "chemistry"),
+            Map.entry("bio", "biology"),
+            Map.entry("maa", "geography"),
+            Map.entry("his", "history"),
+            Map.entry("yht", "social_studies"),
+            Map.entry("fil", "philosophy"),
+            Map.entry("psy", "psychology"),
+            Map.entry("ter", "health_education"),
+            Map.entry("eng", "english"),
+            Map.entry("rua", "swedish"),
+            Map.entry("ai", "finnish")
+    );
+
+    List<Question> parse(Path page) throws IOException {
+        String fileName = page.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return parse(Jsoup.parse(page.toFile(), "UTF-8"), dot > 0 ? fileName.substring(0, dot) : fileName);
+    }
+
+    List<Question> parse(Document document, String fallbackExamCode) {
+        String examCode = meta(document, "exam-code");
+        if (examCode == null) {
+            examCode = fallbackExamCode.toLowerCase(Locale.ROOT);
+        }
+        String subject = meta(document, "subject");
+        if (subject == null) {
+            subject = subjectOf(examCode);
+        }
+        if (subject == null) {
+            return List.of();
+        }
+
+        List<Question> questions = new ArrayList<>();
+        for (Element element : document.select(".question")) {
+            Integer number = questionNumber(element);
+            String text = questionText(element);
+            if (number == null || text.isEmpty()) {
+                continue;
+            }
+            questions.add(Question.builder()
+                    .examCode(examCode)
+                    .subject(subject)
+                    .questionNumber(number)
+                    .questionText(text)
+                    .points(firstNumber(element.select(".max-score"), ANY_NUMBER))
+                    .build());
+        }
+        return questions;
+    }
+
+    static String subjectOf(String examCode) {
+        // Strip the language prefix (p = Finnish, s = Swedish) and the session suffix
+        String code = examCode.split("_", 2)[0];
+        if (code.length() < 2) {
+            return null;
+        }
+        return SUBJECTS.get(code.substring(1));
+    }
+
+    private static String meta(Document document, String name) {
+        Element meta = document.selectFirst("meta[name=" + name + "]");
+        String content = meta == null ? "" : meta.attr("content").strip();
+        return content.isEmpty() ? null : content;
+    }
+
+    private static Integer questionNumber(Element question) {
+        String attribute = question.attr("data-question-number");
+        if (!attribute.isBlank()) {
+            return firstNumber(attribute, LEADING_NUMBER);
+        }
+        return firstNumber(question.select(".question-title, h1, h2, h3, h4"), LEADING_NUMBER);
+    }
+
+    private static String questionText(Element question) {
+        Element text = question.selectFirst(".question-text");
+        if (text != null) {
+            return text.text().strip();
+        }
+        Element copy = question.clone();
+        copy.select(".question-title, h1, h2, h3, h4, .max-score").remove();
+        return copy.text().strip();
+    }
+
+    private static Integer firstNumber(Elements elements, Pattern pattern) {
+        return elements.isEmpty() ? null : firstNumber(elements.first().text(), pattern);
+    }
+
+    private static Integer firstNumber(String text, Pattern pattern) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.anteteno.yoprep.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns Finnish text into search terms: lower-cases, splits on anything that isn't a letter or
+ * digit (so "CO2-päästöt" gives "co2" and "päästö"), drops common stop words and strips clitics,
+ * possessive suffixes, one case ending and a final vowel. A light stemmer: inflected forms of the
+ * same word mostly meet ("yhtälö", "yhtälön", "yhtälössä" -> "yhtäl"), consonant gradation is not undone.
+ */
+final class FinnishAnalyzer {
+
+    private static final Locale FINNISH = Locale.of("fi");
+    private static final int MIN_STEM = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "ja", "tai", "on", "ovat", "ei", "se", "ne", "että", "kun", "jos", "kuin", "mikä", "mitkä",
+            "miten", "mitä", "kuinka", "sekä", "myös", "ole", "oli", "the", "of", "and"
+    );
+
+    private static final String[] CLITICS = {"kaan", "kään", "kin", "han", "hän", "pa", "pä", "ko", "kö"};
+    // -ni/-si left out: too many base forms end that way ("metaani", "vesi")
+    private static final String[] POSSESSIVES = {"nsa", "nsä", "mme", "nne"};
+    // Longest first, so "ssa" wins over "a"
+    private static final String[] CASE_ENDINGS = {
+            "itten", "iden", "ssa", "ssä", "sta", "stä", "lla", "llä", "lta", "ltä", "lle", "ksi", "tta", "ttä",
+            "ta", "tä", "na", "nä", "en", "in", "n", "t", "a", "ä"
+    };
+    private static final String[] FINAL_VOWELS = {"a", "ä", "e", "i", "o", "ö", "u", "y"};
+
+    private FinnishAnalyzer() {
+    }
+
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(FINNISH);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        if (!Character.isLetter(token.charAt(token.length() - 1))) {
+            return token;
+        }
+        String stem = strip(token, CLITICS);
+        stem = strip(stem, POSSESSIVES);
+        stem = strip(stem, CASE_ENDINGS);
+        // The base form keeps its stem vowel ("kaava"), inflected forms lose the ending after it ("kaavan")
+        return strip(stem, FINAL_VOWELS);
+    }
+
+    private static String strip(String word, String[] suffixes) {
+        for (String suffix : suffixes) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
@@ -0,0 +1,96 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.SubjectStats;
+import com.anteteno.yoprep.entity.SubjectProgress;
+import com.anteteno.yoprep.entity.Submission;
+import com.anteteno.yoprep.repository.SubjectProgressRepository;
+import com.anteteno.yoprep.repository.SubmissionRepository;
+import com.anteteno.yoprep.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class ProgressService {
+
+    private final SubmissionRepository submissionRepository;
+    private final SubjectProgressRepository subjectProgressRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Saves a submission that has just become GRADED and adds it to the user's subject
+     * progress in the same transaction. Call once per submission, on the transition to GRADED.
+     */
+    @Transactional
+    public Submission saveGraded(Submission submission) {
+        Submission saved = submissionRepository.save(submission);
+        Long userId = saved.getUser().getId();
+        String subject = saved.getQuestion().getSubject();
+
+        // Locking the user row keeps two gradings from both inserting the first progress row
+        userRepository.findForUpdateById(userId);
+        SubjectProgress progress = subjectProgressRepository.findByUserIdAndSubject(userId, subject)
+                .orElseGet(() -> SubjectProgress.builder().userId(userId).subject(subject).build());
+        progress.record(saved.getAiScore(), saved.getSubmittedAt());
+        subjectProgressRepository.save(progress);
+
+        return saved;
+    }
+
+    /**
+     * Progress summary per subject, read from the maintained aggregates: a few rows regardless of history size.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getProgress(Long userId) {
+        List<SubjectProgress> rows = subjectProgressRepository.findByUserIdOrderBySubject(userId);
+
+        List<Map<String, Object>> subjectStats = rows.stream()
+                .map(row -> {
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    stats.put("subject", row.getSubject());
+                    stats.put("totalAnswers", row.getAnswerCount());
+                    stats.put("averageScore", row.getAnswerCount() == 0
+                            ? 0.0
+                            : Math.round(10.0 * row.getScoreSum() / row.getAnswerCount()) / 10.0);
+                    stats.put("bestScore", row.getBestScore() == null ? 0 : row.getBestScore());
+                    stats.put("lastSubmittedAt", row.getLastSubmittedAt());
+                    return stats;
+                })
+                .toList();
+
+        return Map.of(
+                "userId", userId,
+                "totalSubmissions", rows.stream().mapToInt(SubjectProgress::getAnswerCount).sum(),
+                "subjects", subjectStats
+        );
+    }
+
+    /**
+     * Same summary computed from the submission history by an aggregate query. Unlike the maintained
+     * aggregates this also counts submissions that are still waiting for a grade.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getProgressFromSubmissions(Long userId) {
+        List<SubjectStats> rows = submissionRepository.aggregateByUserIdGroupBySubject(userId);
+
+        List<Map<String, Object>> subjectStats = rows.stream()
+                .map(row -> Map.<String, Object>of(
+                        "subject", row.subject(),
+                        "totalAnswers", row.totalAnswers(),
+                        "averageScore", row.averageScore() == null ? 0.0 : Math.round(row.averageScore() * 10.0) / 10.0,
+                        "bestScore", row.bestScore() == null ? 0 : row.bestScore()
+                ))
+                .toList();
+
+        return Map.of(
+                "userId", userId,
+                "totalSubmissions", rows.stream().mapToLong(SubjectStats::totalAnswers).sum(),
+                "subjects", subjectStats
+        );
+    }
+}
@@ -0,0 +1,160 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.QuestionChangedEvent;
+import com.anteteno.yoprep.event.QuestionsImportedEvent;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory snapshot of all questions, indexed by id, subject, difficulty and exam code.
+ * Reads go through a single volatile reference and never lock or touch the database; changes
+ * build a new snapshot (copy-on-write) and swap it in. Returned questions are shared between
+ * callers and must be treated as read-only.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionCatalog {
+
+    private final QuestionRepository questionRepository;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(Map<Long, Question> byId,
+                            List<Question> all,
+                            Map<String, List<Question>> bySubject,
+                            Map<String, List<Question>> byDifficulty,
+                            Map<String, List<Question>> byExamCode) {
+
+        static Snapshot of(Collection<Question> questions) {
+            List<Question> all = questions.stream().sorted(Comparator.comparing(Question::getId)).toList();
+            return new Snapshot(
+                    all.stream().collect(Collectors.toUnmodifiableMap(Question::getId, Function.identity())),
+                    all,
+                    group(all, Question::getSubject),
+                    group(all, Question::getDifficulty),
+                    group(all, Question::getExamCode)
+            );
+        }
+
+        private static Map<String, List<Question>> group(List<Question> questions,
+                                                         Function<Question, String> attribute) {
+            return Map.copyOf(questions.stream()
+                    .filter(question -> attribute.apply(question) != null)
+                    .collect(Collectors.groupingBy(attribute, Collectors.toUnmodifiableList())));
+        }
+    }
+
+    public Optional<Question> findById(Long id) {
+        return Optional.ofNullable(current().byId().get(id));
+    }
+
+    public List<Question> findBySubject(String subject) {
+        return current().bySubject().getOrDefault(subject, List.of());
+    }
+
+    public List<Question> findByExamCode(String examCode) {
+        return current().byExamCode().getOrDefault(examCode, List.of());
+    }
+
+    /**
+     * Picks a random question matching all given filters; {@code null} filters are ignored.
+     * A single filter is an O(1) lookup; combined filters scan the smallest matching group.
+     */
+    public Optional<Question> pickRandom(String subject, String difficulty, String examCode) {
+        Snapshot current = current();
+
+        List<List<Question>> candidates = new ArrayList<>();
+        if (subject != null) {
+            candidates.add(current.bySubject().getOrDefault(subject, List.of()));
+        }
+        if (difficulty != null) {
+            candidates.add(current.byDifficulty().getOrDefault(difficulty, List.of()));
+        }
+        if (examCode != null) {
+            candidates.add(current.byExamCode().getOrDefault(examCode, List.of()));
+        }
+
+        List<Question> matching;
+        if (candidates.size() <= 1) {
+            matching = candidates.isEmpty() ? current.all() : candidates.get(0);
+        } else {
+            matching = candidates.stream().min(Comparator.comparingInt(List::size)).orElseThrow().stream()
+                    .filter(question -> (subject == null || subject.equals(question.getSubject()))
+                            && (difficulty == null || difficulty.equals(question.getDifficulty()))
+                            && (examCode == null || examCode.equals(question.getExamCode())))
+                    .toList();
+        }
+        return matching.isEmpty()
+                ? Optional.empty()
+                : Optional.of(matching.get(ThreadLocalRandom.current().nextInt(matching.size())));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        snapshot = Snapshot.of(questionRepository.findAll());
+    }
+
+    /**
+     * Applies a single change on top of the current snapshot. Synchronized with {@link #reload},
+     * so a reload that read the old rows can't overwrite the change.
+     */
+    @EventListener
+    public synchronized void onQuestionChanged(QuestionChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+
+        Map<Long, Question> questions = new HashMap<>(current.byId());
+        questions.remove(event.questionId());
+        if (event.type() != QuestionChangedEvent.Type.DELETED) {
+            questionRepository.findById(event.questionId())
+                    .ifPresent(question -> questions.put(question.getId(), question));
+        }
+        snapshot = Snapshot.of(questions.values());
+    }
+
+    /**
+     * Adds a committed import batch with one query and one snapshot swap.
+     */
+    @EventListener
+    public synchronized void onQuestionsImported(QuestionsImportedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+
+        Map<Long, Question> questions = new HashMap<>(current.byId());
+        questionRepository.findAllById(event.questionIds())
+                .forEach(question -> questions.put(question.getId(), question));
+        snapshot = Snapshot.of(questions.values());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                reload();
+            }
+            return snapshot;
+        }
+    }
+}
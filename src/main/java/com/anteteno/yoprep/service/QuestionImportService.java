@@ -0,0 +1,144 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.ImportReport;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.QuestionsImportedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Imports questions from a JSON array or newline-delimited JSON without reading the whole body
+ * into memory: records are parsed one at a time and inserted in JDBC batches, one transaction
+ * per batch. A failure stops the import but keeps the batches committed before it.
+ */
+@Slf4j
+@Service
+public class QuestionImportService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader questionReader;
+    private final int defaultBatchSize;
+    private final int maxBatchSize;
+
+    public QuestionImportService(EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 @Value("${questions.import.batch-size:500}") int defaultBatchSize,
+                                 @Value("${questions.import.max-batch-size:5000}") int maxBatchSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        // A root-level array is unwrapped, so the same reader handles JSON arrays and NDJSON
+        this.questionReader = objectMapper.readerFor(Question.class);
+        this.defaultBatchSize = defaultBatchSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public ImportReport importQuestions(InputStream body, Integer batchSize) throws IOException {
+        BatchWriter writer = new BatchWriter(batchSize);
+        try (MappingIterator<Question> records = questionReader.readValues(body)) {
+            while (records.hasNextValue()) {
+                writer.add(records.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Malformed question record after " + writer.imported + " imported: " + e.getOriginalMessage());
+        }
+        return writer.finish();
+    }
+
+    /**
+     * Same batching for questions that are already in memory, e.g. parsed from exam pages.
+     */
+    public ImportReport importQuestions(Collection<Question> questions, Integer batchSize) {
+        BatchWriter writer = new BatchWriter(batchSize);
+        questions.forEach(writer::add);
+        return writer.finish();
+    }
+
+    private class BatchWriter {
+
+        private final int size;
+        private final long start = System.nanoTime();
+        private final List<ImportReport.Batch> batches = new ArrayList<>();
+        private final List<Question> pending;
+        private int imported;
+        private int rejected;
+
+        BatchWriter(Integer batchSize) {
+            this.size = Math.clamp(batchSize == null ? defaultBatchSize : batchSize, 1, maxBatchSize);
+            this.pending = new ArrayList<>(size);
+        }
+
+        void add(Question question) {
+            if (question.getExamCode() == null || question.getSubject() == null) {
+                rejected++;
+                return;
+            }
+            question.setId(null);
+            pending.add(question);
+            if (pending.size() == size) {
+                flush();
+            }
+        }
+
+        ImportReport finish() {
+            if (!pending.isEmpty()) {
+                flush();
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Imported {} questions ({} rejected) in {} batches, {} ms",
+                    imported, rejected, batches.size(), elapsedMillis);
+            return new ImportReport(imported, rejected, elapsedMillis, perSecond(imported, elapsedMillis),
+                    List.copyOf(batches));
+        }
+
+        private void flush() {
+            long batchStart = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(size);
+                pending.forEach(entityManager::persist);
+                entityManager.flush();
+                // Keeps the persistence context from growing with the import
+                entityManager.clear();
+            });
+            long elapsedMillis = (System.nanoTime() - batchStart) / 1_000_000;
+
+            int count = pending.size();
+            imported += count;
+            ImportReport.Batch batch = new ImportReport.Batch(batches.size() + 1, count, imported,
+                    elapsedMillis, perSecond(count, elapsedMillis));
+            batches.add(batch);
+            log.info("Import batch {}: {} questions in {} ms ({} /s), {} so far",
+                    batch.number(), count, elapsedMillis, Math.round(batch.questionsPerSecond()), imported);
+
+            eventPublisher.publishEvent(new QuestionsImportedEvent(pending.stream().map(Question::getId).toList()));
+            pending.clear();
+        }
+    }
+
+    private static double perSecond(int count, long elapsedMillis) {
+        return Math.round(count * 1000.0 / Math.max(elapsedMillis, 1) * 10) / 10.0;
+    }
+}
@@ -0,0 +1,282 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.QuestionSummary;
+import com.anteteno.yoprep.dto.SearchHit;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.QuestionChangedEvent;
+import com.anteteno.yoprep.event.QuestionsImportedEvent;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over question text and subject, ranked with BM25. Kept in step with
+ * the database through question events; changes touch only the affected postings. Each document
+ * gets a slot number in insertion order, so every posting list stays sorted by slot. Removed
+ * documents leave an empty slot; once a quarter of the slots are empty, the live documents are
+ * renumbered in order and the postings rebuilt from them, without going back to the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionSearchIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int MAX_LIMIT = 100;
+    static final int MIN_EMPTY_SLOTS_TO_COMPACT = 64;
+
+    // Lets "matematiikka" find questions stored under the English subject key
+    private static final Map<String, String> SUBJECT_NAMES = Map.ofEntries(
+            Map.entry("mathematics", "matematiikka"),
+            Map.entry("physics", "fysiikka"),
+            Map.entry("chemistry", "kemia"),
+            Map.entry("biology", "biologia"),
+            Map.entry("geography", "maantieto"),
+            Map.entry("history", "historia"),
+            Map.entry("social_studies", "yhteiskuntaoppi"),
+            Map.entry("philosophy", "filosofia"),
+            Map.entry("psychology", "psykologia"),
+            Map.entry("health_education", "terveystieto"),
+            Map.entry("english", "englanti"),
+            Map.entry("swedish", "ruotsi"),
+            Map.entry("finnish", "äidinkieli")
+    );
+
+    private final QuestionRepository questionRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalLength;
+    private volatile boolean built;
+
+    private record Document(QuestionSummary summary, int length, Map<String, Integer> termFrequencies) {
+    }
+
+    /**
+     * Slots and term frequencies in parallel arrays, sorted by slot.
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int slot, int frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            slots[size] = slot;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remove(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index >= 0) {
+                System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+                System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * The best {@code limit} matches for {@code query}, optionally restricted to one subject.
+     */
+    public List<SearchHit> search(String query, String subject, int limit) {
+        List<String> terms = FinnishAnalyzer.analyze(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            int liveDocuments = slotById.size();
+            if (liveDocuments == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / liveDocuments;
+            double[] scores = new double[documents.size()];
+            int[] touched = new int[documents.size()];
+            int touchedCount = 0;
+
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null || termPostings.size == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (liveDocuments - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    int slot = termPostings.slots[i];
+                    int frequency = termPostings.frequencies[i];
+                    double lengthNorm = 1 - B + B * documents.get(slot).length() / averageLength;
+                    if (scores[slot] == 0) {
+                        touched[touchedCount++] = slot;
+                    }
+                    scores[slot] += idf * frequency * (K1 + 1) / (frequency + K1 * lengthNorm);
+                }
+            }
+
+            int size = Math.clamp(limit, 1, MAX_LIMIT);
+            PriorityQueue<Integer> best = new PriorityQueue<>(size + 1, Comparator.comparingDouble(slot -> scores[slot]));
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                if (subject != null && !subject.equals(documents.get(slot).summary().subject())) {
+                    continue;
+                }
+                best.offer(slot);
+                if (best.size() > size) {
+                    best.poll();
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                int slot = best.poll();
+                hits.add(new SearchHit(documents.get(slot).summary(), scores[slot]));
+            }
+            return hits.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Question> questions = questionRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            slotById.clear();
+            documents.clear();
+            postings.clear();
+            totalLength = 0;
+            questions.forEach(this::add);
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public synchronized void onQuestionChanged(QuestionChangedEvent event) {
+        if (!built) {
+            return;
+        }
+        Question question = event.type() == QuestionChangedEvent.Type.DELETED
+                ? null
+                : questionRepository.findById(event.questionId()).orElse(null);
+        lock.writeLock().lock();
+        try {
+            remove(event.questionId());
+            if (question != null) {
+                add(question);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public synchronized void onQuestionsImported(QuestionsImportedEvent event) {
+        if (!built) {
+            return;
+        }
+        List<Question> questions = questionRepository.findAllById(event.questionIds());
+        lock.writeLock().lock();
+        try {
+            for (Question question : questions) {
+                remove(question.getId());
+                add(question);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    // Callers hold the write lock
+    private void add(Question question) {
+        List<String> terms = FinnishAnalyzer.analyze(question.getQuestionText());
+        terms.addAll(FinnishAnalyzer.analyze(subjectText(question.getSubject())));
+        Map<String, Integer> frequencies = new HashMap<>();
+        terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+        place(new Document(summarize(question), terms.size(), frequencies));
+        totalLength += terms.size();
+    }
+
+    private void place(Document document) {
+        int slot = documents.size();
+        documents.add(document);
+        slotById.put(document.summary().id(), slot);
+        document.termFrequencies()
+                .forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new Postings()).add(slot, frequency));
+    }
+
+    // Empty slots still cost a score array entry per search; renumbering keeps slot order, so postings stay sorted
+    private void compactIfSparse() {
+        int emptySlots = documents.size() - slotById.size();
+        if (emptySlots < MIN_EMPTY_SLOTS_TO_COMPACT || emptySlots * 4 < documents.size()) {
+            return;
+        }
+        List<Document> live = documents.stream().filter(Objects::nonNull).toList();
+        documents.clear();
+        slotById.clear();
+        postings.clear();
+        live.forEach(this::place);
+    }
+
+    private void remove(Long questionId) {
+        Integer slot = slotById.remove(questionId);
+        if (slot == null) {
+            return;
+        }
+        Document document = documents.get(slot);
+        document.termFrequencies().keySet().forEach(term -> postings.get(term).remove(slot));
+        totalLength -= document.length();
+        documents.set(slot, null);
+    }
+
+    private static String subjectText(String subject) {
+        if (subject == null) {
+            return "";
+        }
+        return subject.replace('_', ' ') + " " + SUBJECT_NAMES.getOrDefault(subject, "");
+    }
+
+    private static QuestionSummary summarize(Question question) {
+        String text = question.getQuestionText();
+        String preview = text == null || text.length() <= QuestionSummary.PREVIEW_LENGTH
+                ? text
+                : text.substring(0, QuestionSummary.PREVIEW_LENGTH);
+        return new QuestionSummary(question.getId(), question.getExamCode(), question.getSubject(),
+                question.getQuestionNumber(), question.getPoints(), question.getDifficulty(), preview);
+    }
+}
@@ -1,22 +1,32 @@
 package com.anteteno.yoprep.service;
 
 
+import com.anteteno.yoprep.dto.QuestionPage;
+import com.anteteno.yoprep.dto.QuestionSummary;
+import com.anteteno.yoprep.dto.SearchHit;
 import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.QuestionChangedEvent;
 import com.anteteno.yoprep.repository.QuestionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.Random;
 
 
 @Service
 @RequiredArgsConstructor
 public class QuestionService {
 
+    static final int MAX_PAGE_SIZE = 100;
+
     private final QuestionRepository questionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QuestionCatalog questionCatalog;
+    private final QuestionSearchIndex questionSearchIndex;
 
 
     public List<Question> getAllQuestions() {
@@ -24,38 +34,70 @@ public class QuestionService {
     }
 
 
+    /**
+     * Summaries with id greater than {@code after} (null for the first page), at most {@code size} per page.
+     */
+    public QuestionPage getQuestionPage(Long after, int size, String subject, String examCode, String difficulty) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        // One extra row tells whether there is a next page without a count query
+        List<QuestionSummary> rows = questionRepository.findSummariesAfter(after == null ? 0 : after,
+                subject, examCode, difficulty, Limit.of(pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new QuestionPage(rows, null);
+        }
+        List<QuestionSummary> items = rows.subList(0, pageSize);
+        return new QuestionPage(List.copyOf(items), items.get(pageSize - 1).id());
+    }
+
+
+    public List<SearchHit> searchQuestions(String query, String subject, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must not be empty");
+        }
+        return questionSearchIndex.search(query, subject, limit);
+    }
+
+
     public Question getQuestionById(Long id) {
-        return questionRepository.findById(id)
+        return questionCatalog.findById(id)
+                .or(() -> questionRepository.findById(id))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Question not found with id: "+id));
     }
 
 
     public Question createQuestion(Question question) {
-        return questionRepository.save(question);
+        Question saved = questionRepository.save(question);
+        eventPublisher.publishEvent(new QuestionChangedEvent(saved.getId(), QuestionChangedEvent.Type.CREATED));
+        return saved;
     }
 
 
-    public void deleteQuestion(Long id) {
+    public Question updateQuestion(Long id, Question question) {
         if(!questionRepository.existsById(id)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Question not found with id: "+id);
         }
-        questionRepository.deleteById(id);
+        question.setId(id);
+        Question saved = questionRepository.save(question);
+        eventPublisher.publishEvent(new QuestionChangedEvent(id, QuestionChangedEvent.Type.UPDATED));
+        return saved;
     }
 
 
-    public Question getRandomQuestion() {
-        List<Question> questions = questionRepository.findAll();
-
-        if(questions.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No questions available");
+    public void deleteQuestion(Long id) {
+        if(!questionRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Question not found with id: "+id);
         }
+        questionRepository.deleteById(id);
+        eventPublisher.publishEvent(new QuestionChangedEvent(id, QuestionChangedEvent.Type.DELETED));
+    }
 
-        Random random = new Random();
-
-        int randomIndex = random.nextInt(questions.size());
 
-        return questions.get(randomIndex);
+    public Question getRandomQuestion(String subject, String difficulty, String examCode) {
+        return questionCatalog.pickRandom(subject, difficulty, examCode)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No questions available"));
     }
 
 
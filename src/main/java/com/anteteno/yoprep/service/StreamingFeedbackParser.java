@@ -0,0 +1,78 @@
+package com.anteteno.yoprep.service;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a streamed evaluation into the feedback text, which is forwarded to the client as it
+ * arrives, and the closing result line ({@code ARVOSANA: b; PISTEET: 4}), which is held back
+ * and parsed once the stream ends. Also keeps the token counts reported along the way.
+ * Not thread-safe: one instance per stream.
+ */
+class StreamingFeedbackParser {
+
+    static final String RESULT_MARKER = "ARVOSANA:";
+
+    private static final Pattern RESULT_PATTERN =
+            Pattern.compile("ARVOSANA:\\s*([a-zA-Z]+)\\s*[;,]?\\s*PISTEET:\\s*(\\d+)");
+
+    private final StringBuilder text = new StringBuilder();
+    private int forwarded;
+    private int markerAt = -1;
+    private int inputTokens;
+    private int outputTokens;
+
+    /**
+     * Adds a text delta and returns the part that can be shown to the user now. The last few
+     * characters are kept back until it is clear they don't start the result marker.
+     */
+    String append(String delta) {
+        text.append(delta);
+        if (markerAt >= 0) {
+            return "";
+        }
+
+        markerAt = text.indexOf(RESULT_MARKER, Math.max(0, forwarded - RESULT_MARKER.length()));
+        int visibleEnd = markerAt >= 0
+                ? markerAt
+                : Math.max(forwarded, text.length() - (RESULT_MARKER.length() - 1));
+        return forward(visibleEnd);
+    }
+
+    /**
+     * Feedback text that was still held back when the stream ended without a result marker.
+     */
+    String flush() {
+        return markerAt >= 0 ? "" : forward(text.length());
+    }
+
+    /**
+     * Token counts from a stream event. The counts are cumulative, so the largest seen is kept.
+     */
+    void recordUsage(int inputTokens, int outputTokens) {
+        this.inputTokens = Math.max(this.inputTokens, inputTokens);
+        this.outputTokens = Math.max(this.outputTokens, outputTokens);
+    }
+
+    AiEvaluationService.EvaluationResult result() {
+        return parseResult().withUsage(inputTokens, outputTokens);
+    }
+
+    private AiEvaluationService.EvaluationResult parseResult() {
+        String feedback = (markerAt >= 0 ? text.substring(0, markerAt) : text.toString()).strip();
+        Matcher matcher = RESULT_PATTERN.matcher(markerAt >= 0 ? text.substring(markerAt) : "");
+        if (!matcher.find()) {
+            return new AiEvaluationService.EvaluationResult(
+                    AiEvaluationService.EvaluationResult.FALLBACK_GRADE, "Arvioinnin jäsentäminen epäonnistui", 0);
+        }
+        return new AiEvaluationService.EvaluationResult(
+                matcher.group(1).toLowerCase(Locale.ROOT), feedback, Integer.parseInt(matcher.group(2)));
+    }
+
+    private String forward(int end) {
+        String visible = text.substring(forwarded, end);
+        forwarded = end;
+        return visible;
+    }
+}
@@ -1,16 +1,31 @@
 package com.anteteno.yoprep.service;
 
+import com.anteteno.yoprep.dto.SubmissionSummary;
+import com.anteteno.yoprep.dto.SubmissionView;
+import com.anteteno.yoprep.entity.GradingStatus;
 import com.anteteno.yoprep.entity.Question;
 import com.anteteno.yoprep.entity.Submission;
 import com.anteteno.yoprep.entity.User;
 import com.anteteno.yoprep.repository.SubmissionRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class SubmissionService {
@@ -18,34 +33,265 @@ public class SubmissionService {
     private final SubmissionRepository submissionRepository;
     private final UserService userService;
     private final QuestionService questionService;
+    private final EvaluationBatcher evaluationBatcher;
     private final AiEvaluationService aiEvaluationService;
+    private final AiRequestLimiter aiRequestLimiter;
+    private final AiCircuitBreaker aiCircuitBreaker;
+    private final ProgressService progressService;
+    private final TokenUsageTracker tokenUsageTracker;
+    private final Executor gradingExecutor;
+
+    @Value("${grading.async:false}")
+    private boolean asyncGrading;
+
+    // Over the daily token budget: false = reject with 429, true = save as DEFERRED and grade after the reset
+    @Value("${grading.budget.defer:false}")
+    private boolean deferOverBudget;
+
+    // Longer than any grading attempt can take with its retries, so only lost attempts are retried
+    @Value("${grading.regrade.pending-timeout:10m}")
+    private Duration pendingTimeout;
+
+    public boolean isAsyncGrading() {
+        return asyncGrading;
+    }
 
     public Submission createSubmission(Long userId, Long questionId, String answerText) {
-        User user = userService.getUserById(userId);
+        Submission submission = buildSubmission(userId, questionId, answerText);
+        if (!withinBudget(userId, true)) {
+            submission.setGradingStatus(GradingStatus.DEFERRED);
+            return submissionRepository.save(submission);
+        }
+
+        // Get AI evaluation
+        try {
+            AiEvaluationService.EvaluationResult result = evaluate(submission).block();
+            applyResult(submission, result);
+        } catch (AiUnavailableException e) {
+            submission.setGradingStatus(GradingStatus.AWAITING_REGRADE);
+            return submissionRepository.save(submission);
+        }
+
+        return progressService.saveGraded(submission);
+    }
+
+    /**
+     * Saves the submission as PENDING and grades it without holding a thread during the AI call.
+     * Clients poll GET /api/submissions/{id} until the AI fields are filled in.
+     */
+    public Submission submitForGrading(Long userId, Long questionId, String answerText) {
+        Submission submission = buildSubmission(userId, questionId, answerText);
+        if (!withinBudget(userId, true)) {
+            submission.setGradingStatus(GradingStatus.DEFERRED);
+            return submissionRepository.save(submission);
+        }
+        markPending(submission);
+
+        // A full queue rejects the request before anything is saved; the permit is taken when the AI is called
+        try {
+            aiRequestLimiter.checkCapacity(userId);
+        } catch (AiCapacityExceededException e) {
+            tokenUsageTracker.release(userId);
+            throw e;
+        }
+        Submission saved = submissionRepository.save(submission);
+
+        persistWhenGraded(saved, evaluate(saved));
+        return saved;
+    }
+
+    /**
+     * Saves the submission as PENDING and streams its evaluation. The result is persisted when
+     * the stream completes, also if the client has already gone away. Over budget this always
+     * rejects: a client waiting on the stream can't be deferred.
+     */
+    public GradingStream streamSubmission(Long userId, Long questionId, String answerText) {
+        Submission submission = buildSubmission(userId, questionId, answerText);
+        withinBudget(userId, false);
+        markPending(submission);
+        Submission saved = submissionRepository.save(submission);
+
+        // Saved before admission: a cached answer can complete (and be persisted) right away
+        Flux<AiEvaluationService.EvaluationEvent> events;
+        try {
+            events = persistOnCompletion(saved,
+                    aiEvaluationService.streamEvaluation(saved.getQuestion(), saved.getAnswerText(), userId));
+        } catch (AiCapacityExceededException e) {
+            tokenUsageTracker.release(userId);
+            submissionRepository.delete(saved);
+            throw e;
+        }
+
+        // Runs to completion even if the client goes away; whoever subscribes gets every event
+        return new GradingStream(saved, events.replay().autoConnect(0));
+    }
+
+    public record GradingStream(Submission submission, Flux<AiEvaluationService.EvaluationEvent> events) {
+    }
+
+    /**
+     * Retries submissions that couldn't be graded because the AI provider was unavailable, then
+     * PENDING ones whose grading was lost (e.g. to a restart), then deferred ones. Each one first reserves its user's budget, so a user's backlog stops at the
+     * budget instead of all being sent at once. Skipped while the circuit is open; stops early
+     * when the limiter has no room.
+     */
+    @Scheduled(initialDelayString = "${grading.regrade.interval-ms:60000}",
+            fixedDelayString = "${grading.regrade.interval-ms:60000}")
+    public void regradePending() {
+        if (!aiCircuitBreaker.isCallPermitted()) {
+            return;
+        }
+
+        boolean room = regrade(submissionRepository
+                .findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus.AWAITING_REGRADE));
+        if (room) {
+            room = regrade(submissionRepository.findTop50ByGradingStatusAndGradingStartedAtBeforeOrderBySubmittedAtAsc(
+                    GradingStatus.PENDING, LocalDateTime.now().minus(pendingTimeout)));
+        }
+        if (room) {
+            regrade(submissionRepository.findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus.DEFERRED));
+        }
+    }
+
+    // False once the limiter has no room left; over-budget users' submissions keep their status
+    private boolean regrade(List<Submission> submissions) {
+        for (Submission submission : submissions) {
+            Long userId = submission.getUser().getId();
+            try {
+                aiRequestLimiter.checkCapacity(userId);
+            } catch (AiCapacityExceededException e) {
+                return false;
+            }
+            if (!tokenUsageTracker.tryReserve(userId)) {
+                continue;
+            }
+            markPending(submission);
+            submissionRepository.save(submission);
+            persistWhenGraded(submission, evaluate(submission));
+        }
+        return true;
+    }
+
+    public List<SubmissionSummary> getByUserId(Long userId) {
+        return submissionRepository.findSummariesByUserId(userId);
+    }
+
+    public SubmissionView getById(Long id) {
+        return submissionRepository.findWithQuestionById(id)
+                .map(SubmissionView::from)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Submission not found with id: " + id));
+    }
+
+    private Submission buildSubmission(Long userId, Long questionId, String answerText) {
+        User user = userService.getUserReference(userId);
         Question question = questionService.getQuestionById(questionId);
 
-        Submission submission = Submission.builder()
+        return Submission.builder()
                 .user(user)
                 .question(question)
                 .answerText(answerText)
                 .build();
+    }
 
-        // Get AI evaluation
-        AiEvaluationService.EvaluationResult result = aiEvaluationService.evaluateAnswer(question, answerText);
-        submission.setAiGrade(result.grade());
-        submission.setAiFeedback(result.feedback());
-        submission.setAiScore(result.score());
+    private void persistWhenGraded(Submission submission, Mono<AiEvaluationService.EvaluationResult> evaluation) {
+        Long userId = submission.getUser().getId();
+        evaluation.subscribe(
+                result -> onGradingPool(submission, () -> tokenUsageTracker.release(userId), () -> {
+                    applyResult(submission, result);
+                    progressService.saveGraded(submission);
+                }),
+                // Not graded at all; evaluate() has already given the reservation back
+                e -> onGradingPool(submission, () -> { }, () -> {
+                    if (!(e instanceof AiUnavailableException || e instanceof AiCapacityExceededException)) {
+                        log.error("Grading failed for submission {}", submission.getId(), e);
+                    }
+                    markForRegrade(submission);
+                }));
+    }
 
-        return submissionRepository.save(submission);
+    // A full pool can't take the write: the row goes to the regrade job here instead of staying PENDING
+    private void onGradingPool(Submission submission, Runnable onRejected, Runnable persist) {
+        try {
+            gradingExecutor.execute(persist);
+        } catch (RejectedExecutionException e) {
+            log.warn("Grading pool full, submission {} left for the regrade job", submission.getId());
+            onRejected.run();
+            markForRegrade(submission);
+        }
     }
 
-    public List<Submission> getByUserId(Long userId) {
-        return submissionRepository.findByUserId(userId);
+    private void markPending(Submission submission) {
+        submission.setGradingStatus(GradingStatus.PENDING);
+        submission.setGradingStartedAt(LocalDateTime.now());
     }
 
-    public Submission getById(Long id) {
-        return submissionRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                        "Submission not found with id: " + id));
+    private void markForRegrade(Submission submission) {
+        submission.setGradingStatus(GradingStatus.AWAITING_REGRADE);
+        submissionRepository.save(submission);
+    }
+
+    private Flux<AiEvaluationService.EvaluationEvent> persistOnCompletion(
+            Submission submission, Flux<AiEvaluationService.EvaluationEvent> events) {
+        Scheduler persistence = Schedulers.fromExecutor(gradingExecutor);
+        return events
+                .concatMap(event -> {
+                    if (!(event instanceof AiEvaluationService.EvaluationEvent.Completed completed)) {
+                        return Mono.just(event);
+                    }
+                    return Mono.fromCallable(() -> {
+                        applyResult(submission, completed.result());
+                        progressService.saveGraded(submission);
+                        return event;
+                    }).subscribeOn(persistence);
+                })
+                .onErrorResume(e -> {
+                    // applyResult settles the reservation; an answer that never got that far gives it back
+                    if (submission.getGradingStatus() != GradingStatus.GRADED) {
+                        tokenUsageTracker.release(submission.getUser().getId());
+                    }
+                    if (!(e instanceof AiUnavailableException || e instanceof AiCapacityExceededException)) {
+                        log.error("Grading failed for submission {}", submission.getId(), e);
+                    }
+                    return Mono.fromRunnable(() -> markForRegrade(submission))
+                            .subscribeOn(persistence)
+                            // Pool full: one save on this thread rather than leaving the row PENDING
+                            .onErrorResume(RejectedExecutionException.class,
+                                    rejected -> Mono.fromRunnable(() -> markForRegrade(submission)))
+                            .then(Mono.error(e));
+                });
+    }
+
+    /**
+     * True if the user's budget had room and one answer's tokens are now reserved. Otherwise false
+     * when the submission may be deferred, or a 429 with Retry-After until the reset.
+     */
+    private boolean withinBudget(Long userId, boolean deferrable) {
+        if (tokenUsageTracker.tryReserve(userId)) {
+            return true;
+        }
+        if (deferrable && deferOverBudget) {
+            return false;
+        }
+        throw new AiCapacityExceededException(HttpStatus.TOO_MANY_REQUESTS,
+                "Daily grading budget used up", tokenUsageTracker.secondsUntilReset());
+    }
+
+    // A graded answer settles its reservation in applyResult; one that fails gives it back here
+    private Mono<AiEvaluationService.EvaluationResult> evaluate(Submission submission) {
+        Long userId = submission.getUser().getId();
+        return evaluationBatcher.evaluate(submission.getQuestion(), submission.getAnswerText(), userId)
+                .doOnError(e -> tokenUsageTracker.release(userId));
+    }
+
+    private void applyResult(Submission submission, AiEvaluationService.EvaluationResult result) {
+        submission.setAiGrade(result.grade());
+        submission.setAiFeedback(result.feedback());
+        submission.setAiScore(result.score());
+        submission.setInputTokens(result.inputTokens());
+        submission.setOutputTokens(result.outputTokens());
+        submission.setGradingStatus(GradingStatus.GRADED);
+        submission.setGradedAt(LocalDateTime.now());
+        tokenUsageTracker.record(submission.getUser().getId(), submission.getQuestion(), result);
     }
 }
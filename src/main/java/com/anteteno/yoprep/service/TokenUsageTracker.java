@@ -0,0 +1,239 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.UserDeletedEvent;
+import com.anteteno.yoprep.repository.SubmissionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tokens spent on grading, per user, subject and question since startup, and each user's spend
+ * today against {@code grading.budget.daily-tokens-per-user} (0 = no budget). Today's spend is
+ * reloaded from the submissions graded today on startup, so a restart doesn't hand out a fresh
+ * budget. Every answer admitted for grading reserves {@code grading.budget.reserve-per-answer}
+ * tokens until its real spend is recorded, so answers in flight count against the budget too.
+ */
+@Component
+public class TokenUsageTracker {
+
+    public record Usage(long evaluations, long inputTokens, long outputTokens, long totalTokens) {
+    }
+
+    private record DailySpend(LocalDate day, long tokens, long reserved) {
+
+        static DailySpend of(LocalDate day, DailySpend spent) {
+            return spent != null && spent.day().equals(day) ? spent : new DailySpend(day, 0, 0);
+        }
+
+        DailySpend add(long spent, long reserve, long release) {
+            return new DailySpend(day, tokens + spent, Math.max(0, reserved + reserve - release));
+        }
+    }
+
+    private static final class Tally {
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder inputTokens = new LongAdder();
+        private final LongAdder outputTokens = new LongAdder();
+
+        void add(int input, int output) {
+            evaluations.increment();
+            inputTokens.add(input);
+            outputTokens.add(output);
+        }
+
+        Usage snapshot() {
+            long input = inputTokens.sum();
+            long output = outputTokens.sum();
+            return new Usage(evaluations.sum(), input, output, input + output);
+        }
+    }
+
+    private final SubmissionRepository submissionRepository;
+    private final long dailyBudget;
+    private final long reservePerAnswer;
+    private final Clock clock;
+    private final Counter inputTokens;
+    private final Counter outputTokens;
+
+    private final Tally total = new Tally();
+    private final Map<Long, Tally> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Tally> bySubject = new ConcurrentHashMap<>();
+    private final Map<Long, Tally> byQuestion = new ConcurrentHashMap<>();
+    private final Map<Long, String> subjectByQuestion = new ConcurrentHashMap<>();
+    private final Map<Long, DailySpend> today = new ConcurrentHashMap<>();
+    private volatile LocalDate currentDay;
+
+    public TokenUsageTracker(SubmissionRepository submissionRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${grading.budget.daily-tokens-per-user:0}") long dailyBudget,
+                             @Value("${grading.budget.reserve-per-answer:1500}") long reservePerAnswer,
+                             Optional<Clock> clock) {
+        this.submissionRepository = submissionRepository;
+        this.dailyBudget = dailyBudget;
+        this.reservePerAnswer = reservePerAnswer;
+        this.clock = clock.orElseGet(Clock::systemDefaultZone);
+        this.currentDay = LocalDate.now(this.clock);
+        this.inputTokens = Counter.builder("yoprep.ai.tokens").tag("type", "input")
+                .description("Tokens sent to the AI for grading").register(meterRegistry);
+        this.outputTokens = Counter.builder("yoprep.ai.tokens").tag("type", "output")
+                .description("Tokens the AI generated while grading").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadToday() {
+        LocalDate day = day();
+        submissionRepository.sumTokensByUserSince(day.atStartOfDay())
+                .forEach(spent -> today.compute(spent.userId(), (userId, current) -> {
+                    DailySpend known = DailySpend.of(day, current);
+                    return known.add(Math.max(0, spent.tokens() - known.tokens()), 0, 0);
+                }));
+    }
+
+    /**
+     * Counts one graded answer and settles its reservation; cached answers count as an evaluation
+     * with no tokens.
+     */
+    public void record(Long userId, Question question, AiEvaluationService.EvaluationResult result) {
+        int input = result.inputTokens();
+        int output = result.outputTokens();
+        total.add(input, output);
+        byUser.computeIfAbsent(userId, id -> new Tally()).add(input, output);
+        byQuestion.computeIfAbsent(question.getId(), id -> new Tally()).add(input, output);
+        if (question.getSubject() != null) {
+            bySubject.computeIfAbsent(question.getSubject(), subject -> new Tally()).add(input, output);
+            subjectByQuestion.putIfAbsent(question.getId(), question.getSubject());
+        }
+        inputTokens.increment(input);
+        outputTokens.increment(output);
+
+        LocalDate day = day();
+        today.compute(userId, (id, spent) -> DailySpend.of(day, spent).add(input + output, 0, reservePerAnswer));
+    }
+
+    /**
+     * Reserves the tokens of one answer if the user's spend plus reservations is still under
+     * today's budget. Checked and reserved in one step, so concurrent answers can't all pass on
+     * the same spend. Every reservation ends in {@link #record} or {@link #release}.
+     */
+    public boolean tryReserve(Long userId) {
+        if (dailyBudget <= 0) {
+            return true;
+        }
+        LocalDate day = day();
+        boolean[] reserved = {false};
+        today.compute(userId, (id, spent) -> {
+            DailySpend current = DailySpend.of(day, spent);
+            if (current.tokens() + current.reserved() >= dailyBudget) {
+                return current;
+            }
+            reserved[0] = true;
+            return current.add(0, reservePerAnswer, 0);
+        });
+        return reserved[0];
+    }
+
+    /**
+     * Gives back the reservation of an answer that ended without a grade.
+     */
+    public void release(Long userId) {
+        today.computeIfPresent(userId, (id, spent) -> spent.add(0, 0, reservePerAnswer));
+    }
+
+    public boolean isOverBudget(Long userId) {
+        DailySpend spent = today.get(userId);
+        return dailyBudget > 0 && spent != null && spent.day().equals(day())
+                && spent.tokens() + spent.reserved() >= dailyBudget;
+    }
+
+    /**
+     * Seconds until the budgets reset at midnight, for Retry-After.
+     */
+    public long secondsUntilReset() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return Math.max(1, Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay()).toSeconds());
+    }
+
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        byUser.remove(event.userId());
+        today.remove(event.userId());
+    }
+
+    public Map<String, Object> userUsage(Long userId) {
+        Tally tally = byUser.get(userId);
+        long spentToday = tokensToday(userId);
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("userId", userId);
+        usage.put("sinceStartup", tally == null ? new Usage(0, 0, 0, 0) : tally.snapshot());
+        usage.put("tokensToday", spentToday);
+        usage.put("dailyBudget", dailyBudget > 0 ? dailyBudget : null);
+        usage.put("remainingToday", dailyBudget > 0 ? Math.max(0, dailyBudget - spentToday) : null);
+        return usage;
+    }
+
+    /**
+     * Totals since startup: all grading, every subject, and the {@code limit} users and questions
+     * that spent the most tokens.
+     */
+    public Map<String, Object> stats(int limit) {
+        Map<String, Usage> subjects = new LinkedHashMap<>();
+        bySubject.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> subjects.put(entry.getKey(), entry.getValue().snapshot()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", total.snapshot());
+        stats.put("dailyBudget", dailyBudget > 0 ? dailyBudget : null);
+        stats.put("bySubject", subjects);
+        stats.put("topUsers", top(byUser, limit).stream()
+                .map(entry -> Map.of("userId", entry.getKey(), "usage", entry.getValue()))
+                .toList());
+        stats.put("topQuestions", top(byQuestion, limit).stream()
+                .map(entry -> Map.of("questionId", entry.getKey(),
+                        "subject", subjectByQuestion.getOrDefault(entry.getKey(), ""),
+                        "usage", entry.getValue()))
+                .toList());
+        return stats;
+    }
+
+    private static List<Map.Entry<Long, Usage>> top(Map<Long, Tally> tallies, int limit) {
+        return tallies.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().snapshot()))
+                .sorted(Comparator.comparingLong((Map.Entry<Long, Usage> entry) -> entry.getValue().totalTokens())
+                        .reversed())
+                .limit(Math.max(limit, 0))
+                .toList();
+    }
+
+    private long tokensToday(Long userId) {
+        DailySpend spent = today.get(userId);
+        return spent != null && spent.day().equals(day()) ? spent.tokens() : 0;
+    }
+
+    // Yesterday's spend is dropped the first time the new day is seen
+    private LocalDate day() {
+        LocalDate day = LocalDate.now(clock);
+        if (!day.equals(currentDay)) {
+            currentDay = day;
+            today.values().removeIf(spent -> !spent.day().equals(day));
+        }
+        return day;
+    }
+}
@@ -0,0 +1,118 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.event.UserDeletedEvent;
+import com.anteteno.yoprep.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Size-bounded cache of which users exist, keyed by id and by username. Unknown ids are cached as
+ * well (for {@code users.cache.negative-ttl}), so probing a missing id doesn't hit the database on
+ * every request. Holds only id and username, never the password hash.
+ */
+@Component
+public class UserIdentityCache {
+
+    public record Identity(Long id, String username) {
+        static Identity of(User user) {
+            return new Identity(user.getId(), user.getUsername());
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Optional<Identity>> byId;
+    private final Cache<String, Long> idByUsername;
+
+    public UserIdentityCache(UserRepository userRepository,
+                             @Value("${users.cache.max-size:50000}") long maxSize,
+                             @Value("${users.cache.ttl:30m}") Duration ttl,
+                             @Value("${users.cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Optional<Identity>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<Identity> identity, long currentTime) {
+                        return (identity.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<Identity> identity, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(id, identity, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<Identity> identity, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.idByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * The user with this id, loaded from the database on a miss; empty if there is no such user.
+     */
+    public Optional<Identity> get(Long id) {
+        return byId.get(id, key -> {
+            Optional<Identity> identity = userRepository.findById(key).map(Identity::of);
+            identity.ifPresent(found -> idByUsername.put(found.username(), found.id()));
+            return identity;
+        });
+    }
+
+    /**
+     * True only if the username is known to be taken; false means "not cached", not "free".
+     */
+    public boolean isKnownUsername(String username) {
+        return username != null && idByUsername.getIfPresent(username) != null;
+    }
+
+    public void put(User user) {
+        Identity identity = Identity.of(user);
+        byId.put(identity.id(), Optional.of(identity));
+        idByUsername.put(identity.username(), identity.id());
+    }
+
+    // After commit: evicting earlier lets a concurrent miss reload the still-visible row
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidate(event.userId());
+    }
+
+    public void invalidate(Long id) {
+        Optional<Identity> cached = byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (cached != null) {
+            cached.ifPresent(identity -> idByUsername.invalidate(identity.username()));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = byId.stats();
+        return Map.of(
+                "size", byId.estimatedSize(),
+                "usernames", idByUsername.estimatedSize(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount(),
+                "hitRate", Math.round(stats.hitRate() * 1000.0) / 1000.0
+        );
+    }
+}
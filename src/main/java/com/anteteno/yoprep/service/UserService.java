@@ -1,11 +1,17 @@
 package com.anteteno.yoprep.service;
 
 import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.event.UserDeletedEvent;
+import com.anteteno.yoprep.repository.SubjectProgressRepository;
+import com.anteteno.yoprep.repository.SubmissionRepository;
+import com.anteteno.yoprep.repository.UserAnswerRepository;
 import com.anteteno.yoprep.repository.UserRepository;
+import com.anteteno.yoprep.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -16,24 +22,36 @@ public class UserService {
 
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final UserIdentityCache userIdentityCache;
+    private final SubmissionRepository submissionRepository;
+    private final UserAnswerRepository userAnswerRepository;
+    private final SubjectProgressRepository subjectProgressRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     public User createUser(User user) {
         String username = user.getUsername();
         String email = user.getEmail();
 
-        if(userRepository.findUserByUsername(username) != null) {
+        if(userIdentityCache.isKnownUsername(username)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Username already exists");
-        } else if (userRepository.findUserByEmail(email) != null) {
+        }
+        List<String> clashes = userRepository.findUsernamesByUsernameOrEmail(username, email);
+        if(clashes.contains(username)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Username already exists");
+        } else if (!clashes.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already in use");
         }
 
-        String hashedPassword = passwordEncoder.encode(user.getPassword());
+        String hashedPassword = passwordHasher.encode(user.getPassword());
         user.setPassword(hashedPassword);
 
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // Also replaces a negative entry from someone probing this id before it existed
+        userIdentityCache.put(saved);
+        return saved;
     }
 
     public User getUserById(Long id) {
@@ -42,28 +60,63 @@ public class UserService {
                          "Cannot find user with id: " + id));
     }
 
+    /**
+     * The user to attach to a new row, as a lazy reference. Existence is checked against
+     * {@link UserIdentityCache}, so the usual case makes no query at all; a token that outlived
+     * its user gets 401 here instead of a foreign key error on insert.
+     */
+    public User getUserReference(Long id) {
+        if (userIdentityCache.get(id).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User no longer exists: " + id);
+        }
+        return userRepository.getReferenceById(id);
+    }
+
+    /**
+     * Deletes the user together with their submissions, answers and progress. Caches forget the
+     * user once this commits (see {@link UserDeletedEvent}).
+     */
+    @Transactional
+    public void deleteUserById(Long id) {
+        if (!userRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot find user with id: " + id);
+        }
+        submissionRepository.deleteByUserId(id);
+        userAnswerRepository.deleteByUserId(id);
+        subjectProgressRepository.deleteByUserId(id);
+        userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
+    }
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
 
     private boolean verifyPassword(String rawpassword, String hashedpassword) {
-        return passwordEncoder.matches(rawpassword, hashedpassword);
+        return passwordHasher.matches(rawpassword, hashedpassword);
     }
 
 
     public User login(String username, String password) {
 
-        if(userRepository.findUserByUsername(username) == null) {
+        User user = userRepository.findUserByUsername(username);
+        if(user == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Incorrect username");
         }
 
-        User user = userRepository.findUserByUsername(username);
-
         if(!verifyPassword(password, user.getPassword())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Incorrect password");
         }
 
+        // The plain password is only at hand here, so this is where an old cost gets upgraded
+        if(passwordHasher.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHasher.encode(password));
+            user = userRepository.save(user);
+        }
+
+        // The first submission after login then finds the user in the cache
+        userIdentityCache.put(user);
         return user;
     }
 }
@@ -0,0 +1,52 @@
+-- Baseline: the schema Hibernate generated from the entities before migrations took over
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL UNIQUE,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6)
+);
+
+CREATE TABLE questions (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    exam_code       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    question_number INTEGER,
+    question_text   VARCHAR(255),
+    correct_answer  VARCHAR(255),
+    points          INTEGER,
+    difficulty      VARCHAR(255)
+);
+
+CREATE TABLE submissions (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id        BIGINT       NOT NULL REFERENCES users (id),
+    question_id    BIGINT       NOT NULL REFERENCES questions (id),
+    answer_text    TEXT         NOT NULL,
+    submitted_at   TIMESTAMP(6),
+    ai_grade       VARCHAR(255),
+    ai_feedback    TEXT,
+    ai_score       INTEGER,
+    grading_status VARCHAR(32)
+);
+
+CREATE TABLE useranswer (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id      BIGINT       NOT NULL REFERENCES users (id),
+    question_id  BIGINT       NOT NULL REFERENCES questions (id),
+    user_answer  VARCHAR(255) NOT NULL,
+    is_correct   BOOLEAN      NOT NULL,
+    answererd_at TIMESTAMP(6)
+);
+
+CREATE TABLE subject_progress (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id           BIGINT       NOT NULL,
+    subject           VARCHAR(255) NOT NULL,
+    answer_count      INTEGER      NOT NULL,
+    score_sum         BIGINT       NOT NULL,
+    best_score        INTEGER,
+    last_submitted_at TIMESTAMP(6),
+    CONSTRAINT uk_subject_progress_user_subject UNIQUE (user_id, subject)
+);
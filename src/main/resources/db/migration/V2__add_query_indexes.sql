@@ -0,0 +1,10 @@
+-- Submission history, per-question attempts and progress queries filter on user first
+CREATE INDEX idx_submissions_user_question_submitted ON submissions (user_id, question_id, submitted_at);
+
+-- Regrade job: oldest submissions waiting in a given grading status
+CREATE INDEX idx_submissions_status_submitted ON submissions (grading_status, submitted_at);
+
+CREATE INDEX idx_useranswer_user_question ON useranswer (user_id, question_id);
+
+-- Question listing and random selection filter by subject, then difficulty and exam code
+CREATE INDEX idx_questions_subject_difficulty_exam ON questions (subject, difficulty, exam_code);
@@ -0,0 +1,10 @@
+-- Question ids come from a sequence so Hibernate can batch inserts (IDENTITY forces one round trip
+-- per row). The increment matches the entity's allocationSize: with the pooled-lo optimizer each
+-- NEXT VALUE reserves a block of 50 ids starting at the returned value.
+
+CREATE SEQUENCE question_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE question_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM questions);
+
+-- Plain SQL inserts (the seed migration) draw from the same sequence and can't collide with Hibernate's blocks
+ALTER TABLE questions ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE questions ALTER COLUMN id SET DEFAULT NEXT VALUE FOR question_seq;
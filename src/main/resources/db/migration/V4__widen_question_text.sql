@@ -0,0 +1,2 @@
+-- Exam questions scraped from archive pages run well past 255 characters
+ALTER TABLE questions ALTER COLUMN question_text SET DATA TYPE TEXT;
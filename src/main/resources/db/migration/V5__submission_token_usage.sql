@@ -0,0 +1,3 @@
+-- Tokens the AI grading spent on each submission (0 when the evaluation cache answered)
+ALTER TABLE submissions ADD COLUMN input_tokens INTEGER;
+ALTER TABLE submissions ADD COLUMN output_tokens INTEGER;
@@ -0,0 +1,4 @@
+-- When the AI result was applied; a regraded or deferred answer can be graded days after it was submitted
+ALTER TABLE submissions ADD COLUMN graded_at TIMESTAMP(6);
+UPDATE submissions SET graded_at = submitted_at WHERE input_tokens IS NOT NULL;
+CREATE INDEX idx_submissions_graded_at ON submissions (graded_at);
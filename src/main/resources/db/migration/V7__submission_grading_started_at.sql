@@ -0,0 +1,3 @@
+-- When the current grading attempt began; the regrade job retries PENDING rows whose attempt never finished
+ALTER TABLE submissions ADD COLUMN grading_started_at TIMESTAMP(6);
+UPDATE submissions SET grading_started_at = submitted_at WHERE grading_status = 'PENDING';
@@ -0,0 +1,223 @@
+package com.anteteno.yoprep;
+
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.repository.UserRepository;
+import com.anteteno.yoprep.security.AuthTokenService;
+import com.anteteno.yoprep.service.AiEvaluationService;
+import com.anteteno.yoprep.service.EvaluationBatcher;
+import com.anteteno.yoprep.service.QuestionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives a realistic request mix against the prod pool settings for {@code soak.duration}
+ * (default 30 s) and checks that the pool never runs dry. Run with {@code mvn -Psoak test}.
+ */
+@Tag("soak")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:soakdb"
+})
+@ActiveProfiles({"prod", "test"})
+@DisplayName("ConnectionPoolSoakTests")
+class ConnectionPoolSoakTest {
+
+    private static final int CLIENTS = 32;
+    private static final int USERS = 200;
+    private static final int QUESTIONS = 40;
+    private static final Duration AI_LATENCY = Duration.ofMillis(300);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @MockitoBean
+    private EvaluationBatcher evaluationBatcher;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Long> questionIds = new ArrayList<>();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @BeforeEach
+    void seed() {
+        when(evaluationBatcher.evaluate(any(Question.class), any(String.class), any())).thenAnswer(invocation ->
+                Mono.delay(AI_LATENCY).thenReturn(new AiEvaluationService.EvaluationResult("m", "Hyvä alku", 4)));
+
+        String[] subjects = {"mathematics", "physics", "chemistry", "history"};
+        for (int i = 0; i < QUESTIONS; i++) {
+            questionIds.add(questionService.createQuestion(Question.builder()
+                    .examCode("soak_k2025").subject(subjects[i % subjects.length]).questionNumber(i + 1)
+                    .questionText("Kysymys " + i).correctAnswer("-").points(6).difficulty("medium")
+                    .build()).getId());
+        }
+        long run = System.nanoTime();
+        for (int i = 0; i < USERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .username("soak_" + run + "_" + i)
+                    .email("soak_" + run + "_" + i + "@example.com")
+                    .password("Password123")
+                    .build());
+            userIds.add(user.getId());
+            tokens.add(authTokenService.issue(user.getId(), user.getUsername()).token());
+        }
+    }
+
+    @Test
+    void requestMix_neverExhaustsConnectionPool() throws Exception {
+        HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        int maxPoolSize = ((HikariDataSource) dataSource).getMaximumPoolSize();
+        Duration duration = Duration.parse(System.getProperty("soak.duration", "PT30S"));
+
+        AtomicInteger peakActive = new AtomicInteger();
+        AtomicInteger peakWaiting = new AtomicInteger();
+        LongAdder samples = new LongAdder();
+        LongAdder saturatedSamples = new LongAdder();
+        LongAdder requests = new LongAdder();
+        Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS + 1);
+        clients.submit(() -> {
+            while (System.nanoTime() < deadline) {
+                int active = pool.getActiveConnections();
+                int waiting = pool.getThreadsAwaitingConnection();
+                peakActive.accumulateAndGet(active, Math::max);
+                peakWaiting.accumulateAndGet(waiting, Math::max);
+                samples.increment();
+                if (active == maxPoolSize && waiting > 0) {
+                    saturatedSamples.increment();
+                }
+                sleep(5);
+            }
+        });
+        for (int c = 0; c < CLIENTS; c++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = nextRequest();
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 300) {
+                            failures.computeIfAbsent(request.uri().getPath().replaceAll("\\d+", "{id}")
+                                    + " -> " + response.statusCode(), key -> new LongAdder()).increment();
+                        }
+                    } catch (Exception e) {
+                        failures.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                    }
+                    requests.increment();
+                }
+            });
+        }
+        clients.shutdown();
+        assertThat(clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)).isTrue();
+
+        double saturated = saturatedSamples.sum() / (double) samples.sum();
+        System.out.printf("soak: %d requests in %s, %.0f req/s, peak active %d/%d, peak waiting %d, "
+                        + "saturated %.1f%% of the time, failures %s%n",
+                requests.sum(), duration, requests.sum() / (double) duration.toSeconds(),
+                peakActive.get(), maxPoolSize, peakWaiting.get(), saturated * 100, failures);
+
+        assertThat(requests.sum()).isPositive();
+        assertThat(failures).isEmpty();
+        // A pool that ran dry would surface as 500s from connection-timeout above; short queues at
+        // peaks are fine, but the pool must not be the steady-state bottleneck
+        assertThat(saturated).isLessThan(0.25);
+    }
+
+    // Roughly what the frontend does per student: browse and read questions, answer some, check progress
+    private HttpRequest nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(userIds.size());
+        Long userId = userIds.get(user);
+        String token = tokens.get(user);
+        Long questionId = questionIds.get(random.nextInt(questionIds.size()));
+        int roll = random.nextInt(100);
+        if (roll < 25) {
+            return get("/api/questions/page?size=20", token);
+        } else if (roll < 45) {
+            return get("/api/questions/" + questionId, token);
+        } else if (roll < 55) {
+            return get("/api/questions/random?subject=physics", token);
+        } else if (roll < 75) {
+            return post("/api/submissions", Map.of("questionId", questionId, "answerText", "Vastaus"), token);
+        } else if (roll < 85) {
+            return get("/api/submissions/user/" + userId, token);
+        } else if (roll < 95) {
+            return get("/api/progress/" + userId, token);
+        }
+        return get("/api/progress/" + userId + "/live", token);
+    }
+
+    // Like the frontend, every request carries the student's token
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(10)).header("Authorization", "Bearer " + token).GET().build();
+    }
+
+    private HttpRequest post(String path, Map<String, Object> body, String token) {
+        try {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.anteteno.yoprep;
+
+import com.anteteno.yoprep.security.AuthTokenService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@DisplayName("MetricsEndpointTests")
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Test
+    void prometheus_exposesPoolCacheAndEndpointMetrics() throws Exception {
+        mockMvc.perform(get("/api/progress/{userId}", 999_999L)
+                .header("Authorization", "Bearer " + authTokenService.issue(999_999L, "metrics").token()));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("yoprep_ai_limiter_in_flight")))
+                .andExpect(content().string(containsString("yoprep_cache_hits_total{application=\"yoprep\",cache=\"evaluation\"}")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/api/progress/{userId}\"")));
+    }
+}
@@ -0,0 +1,121 @@
+package com.anteteno.yoprep;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the Messages API ({@code POST /v1/messages}). Every call takes
+ * {@code latency} (±50 % jitter) and fails with 529 overloaded at {@code failureRate}; otherwise
+ * it answers with a grade in the JSON shape the grading prompt asks for, one item per answer for
+ * batched prompts. Streaming is not supported.
+ */
+final class StubLlmServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final double failureRate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private StubLlmServer(Duration latency, double failureRate) throws IOException {
+        this.latency = latency;
+        this.failureRate = failureRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // Sleeping handlers must not limit the stub's own concurrency
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/messages", this::handle);
+        server.start();
+    }
+
+    static StubLlmServer start(Duration latency, double failureRate) throws IOException {
+        return new StubLlmServer(latency, failureRate);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            String prompt = request.path("messages").path(0).path("content").asText();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Thread.sleep((long) (latency.toMillis() * (0.5 + random.nextDouble())));
+
+            if (random.nextDouble() < failureRate) {
+                failures.increment();
+                respond(exchange, 529, Map.of("type", "error",
+                        "error", Map.of("type", "overloaded_error", "message", "Overloaded")));
+                return;
+            }
+            respond(exchange, 200, Map.of(
+                    "type", "message",
+                    "role", "assistant",
+                    "content", List.of(Map.of("type", "text", "text", evaluationText(prompt))),
+                    "usage", Map.of("input_tokens", prompt.length() / 4, "output_tokens", 60)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String evaluationText(String prompt) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (!prompt.contains("JSON-taulukkona")) {
+            return objectMapper.writeValueAsString(grade(random));
+        }
+        // Batched prompt: the answers are one JSON array on the "VASTAUKSET: " line
+        String array = prompt.lines().filter(line -> line.startsWith("VASTAUKSET: ")).findFirst().orElse("[]");
+        int answers = objectMapper.readTree(array.substring(array.indexOf('['))).size();
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 1; i <= answers; i++) {
+            Map<String, Object> item = new LinkedHashMap<>(grade(random));
+            item.put("index", i);
+            items.add(item);
+        }
+        return objectMapper.writeValueAsString(items);
+    }
+
+    private static Map<String, Object> grade(ThreadLocalRandom random) {
+        return Map.of("grade", "m", "score", random.nextInt(13), "feedback", "Hyvä alku, perustelut puuttuvat osin.");
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.anteteno.yoprep;
+
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.repository.UserRepository;
+import com.anteteno.yoprep.security.AuthTokenService;
+import com.anteteno.yoprep.service.QuestionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Submits answers at increasing concurrency against a local stub of the AI provider and reports
+ * throughput, p50/p99 latency and outcomes per level. Each client is one student: submit, wait
+ * until the answer is graded (polling in async mode), repeat. Run with {@code mvn -Pload test};
+ * tune with {@code load.levels}, {@code load.step-duration}, {@code load.warmup}, {@code load.stub.latency},
+ * {@code load.stub.failure-rate} and {@code load.async}. Grading settings such as
+ * {@code grading.batch.enabled} can be passed as system properties too.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loaddb",
+        "spring.jpa.show-sql=false",
+        "grading.async=${load.async:true}",
+        // The limiter is sized for the real API; here the stub is the thing under load
+        "grading.limiter.rate-per-second=${load.limiter.rate-per-second:1000}",
+        "grading.limiter.burst=${load.limiter.rate-per-second:1000}",
+        "grading.limiter.max-concurrent=${load.limiter.max-concurrent:200}",
+        "grading.limiter.max-queued=10000",
+        "grading.limiter.max-queued-per-user=10"
+})
+@ActiveProfiles("test")
+@DisplayName("SubmissionLoadTests")
+class SubmissionLoadTest {
+
+    private static final int QUESTIONS = 20;
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+    private static final Duration GRADING_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final double FAILURE_RATE = Double.parseDouble(System.getProperty("load.stub.failure-rate", "0"));
+    private static final StubLlmServer STUB;
+
+    static {
+        try {
+            STUB = StubLlmServer.start(Duration.parse(System.getProperty("load.stub.latency", "PT0.8S")), FAILURE_RATE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void stubProperties(DynamicPropertyRegistry registry) {
+        registry.add("anthropic.base-url", STUB::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Long> questionIds = new ArrayList<>();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private record LevelResult(int concurrency, long requests, double throughput, double gradedPerSecond,
+                               long p50Millis, long p99Millis, Map<String, Long> outcomes) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : 1 - outcomes.getOrDefault("graded", 0L) / (double) requests;
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        int[] levels = levels();
+        int maxClients = levels[levels.length - 1];
+        for (int i = 0; i < QUESTIONS; i++) {
+            questionIds.add(questionService.createQuestion(Question.builder()
+                    .examCode("load_k2025").subject(i % 2 == 0 ? "physics" : "history").questionNumber(i + 1)
+                    .questionText("Kysymys " + i).correctAnswer("-").points(12).difficulty("medium")
+                    .build()).getId());
+        }
+        long run = System.nanoTime();
+        for (int i = 0; i < maxClients; i++) {
+            User user = userRepository.save(User.builder()
+                    .username("load_" + run + "_" + i)
+                    .email("load_" + run + "_" + i + "@example.com")
+                    .password("-")
+                    .build());
+            tokens.add(authTokenService.issue(user.getId(), user.getUsername()).token());
+        }
+    }
+
+    @Test
+    void submissions_increasingConcurrency_reportsThroughputAndLatency() throws Exception {
+        Duration step = Duration.parse(System.getProperty("load.step-duration", "PT20S"));
+        // Not reported: JIT, connection pools and the HTTP client warm up here
+        runLevel(levels()[0], Duration.parse(System.getProperty("load.warmup", "PT10S")));
+
+        List<LevelResult> results = new ArrayList<>();
+        for (int concurrency : levels()) {
+            results.add(runLevel(concurrency, step));
+        }
+
+        System.out.printf("load: stub %s latency, %.0f%% failures, %d stub requests%n",
+                System.getProperty("load.stub.latency", "PT0.8S"), FAILURE_RATE * 100, STUB.requests());
+        System.out.printf("%8s %9s %9s %9s %8s %8s %7s  %s%n",
+                "clients", "requests", "req/s", "graded/s", "p50 ms", "p99 ms", "errors", "outcomes");
+        LevelResult saturation = null;
+        for (int i = 0; i < results.size(); i++) {
+            LevelResult level = results.get(i);
+            System.out.printf("%8d %9d %9.1f %9.1f %8d %8d %6.1f%%  %s%n",
+                    level.concurrency(), level.requests(), level.throughput(), level.gradedPerSecond(),
+                    level.p50Millis(), level.p99Millis(), level.errorRate() * 100, level.outcomes());
+            // Saturated: more clients no longer buy 10 % more graded answers, or answers start failing
+            if (saturation == null && i > 0 && (level.gradedPerSecond() < results.get(i - 1).gradedPerSecond() * 1.1
+                    || level.errorRate() > Math.max(0.01, FAILURE_RATE))) {
+                saturation = results.get(i - 1);
+            }
+        }
+        System.out.println(saturation == null
+                ? "load: no saturation up to " + results.getLast().concurrency() + " clients"
+                : String.format("load: saturates around %d clients, %.1f graded/s",
+                saturation.concurrency(), saturation.gradedPerSecond()));
+
+        assertThat(results).allSatisfy(level -> assertThat(level.requests()).isPositive());
+        if (FAILURE_RATE == 0) {
+            assertThat(results.getFirst().errorRate()).isZero();
+        }
+    }
+
+    private LevelResult runLevel(int concurrency, Duration step) throws InterruptedException {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        long deadline = start + step.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                String token = tokens.get(c);
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long requestStart = System.nanoTime();
+                        String outcome = submitAndAwaitGrade(token);
+                        latencies.add((System.nanoTime() - requestStart) / 1_000_000);
+                        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                    }
+                });
+            }
+            clients.shutdown();
+            assertThat(clients.awaitTermination(step.toSeconds() + GRADING_TIMEOUT.toSeconds() + 30, TimeUnit.SECONDS))
+                    .isTrue();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return new LevelResult(concurrency, sorted.length, sorted.length / seconds,
+                counts.getOrDefault("graded", 0L) / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), counts);
+    }
+
+    /**
+     * One submission from POST until it has a grade: "graded", "fallback" (graded with the fallback
+     * result), "awaiting-regrade", "http-<status>", "timeout" or the exception name.
+     */
+    private String submitAndAwaitGrade(String token) {
+        Long questionId = questionIds.get(ThreadLocalRandom.current().nextInt(questionIds.size()));
+        // Unique text, so the evaluation cache can't answer for the stub
+        String answer = "Vastaus " + UUID.randomUUID();
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri("/api/submissions"))
+                            .timeout(GRADING_TIMEOUT)
+                            .header("Content-Type", "application/json")
+                            .header("Authorization", "Bearer " + token)
+                            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                                    Map.of("questionId", questionId, "answerText", answer))))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300 && response.statusCode() != 202) {
+                return "http-" + response.statusCode();
+            }
+
+            JsonNode submission = objectMapper.readTree(response.body());
+            long pollDeadline = System.nanoTime() + GRADING_TIMEOUT.toNanos();
+            while ("PENDING".equals(submission.path("gradingStatus").asText())) {
+                if (System.nanoTime() > pollDeadline) {
+                    return "timeout";
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+                HttpResponse<String> poll = http.send(HttpRequest.newBuilder(
+                                uri("/api/submissions/" + submission.path("id").asLong()))
+                                .header("Authorization", "Bearer " + token).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (poll.statusCode() != 200) {
+                    return "http-" + poll.statusCode();
+                }
+                submission = objectMapper.readTree(poll.body());
+            }
+            return switch (submission.path("gradingStatus").asText()) {
+                case "AWAITING_REGRADE" -> "awaiting-regrade";
+                default -> "?".equals(submission.path("aiGrade").asText()) ? "fallback" : "graded";
+            };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        } catch (Exception e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int[] levels() {
+        return Arrays.stream(System.getProperty("load.levels", "4,8,16,32,64").split(","))
+                .mapToInt(level -> Integer.parseInt(level.strip()))
+                .sorted()
+                .toArray();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
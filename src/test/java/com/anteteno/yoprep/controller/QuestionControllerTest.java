@@ -12,6 +12,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.stream.IntStream;
+
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -117,6 +119,117 @@ class QuestionControllerTest {
                 .andExpect(jsonPath("$.questionText").isNotEmpty());
     }
 
+    @Test
+    void getRandomQuestion_withFilters_returnsMatchingQuestion() throws Exception {
+        Question saved = questionService.createQuestion(Question.builder()
+                .examCode("pfil_k2025")
+                .subject("philosophy")
+                .questionNumber(1)
+                .questionText("Mitä on tieto?")
+                .correctAnswer("hyvin perusteltu tosi uskomus")
+                .points(6)
+                .difficulty("hard")
+                .build());
+
+        mockMvc.perform(get("/api/questions/random")
+                        .param("subject", "philosophy")
+                        .param("difficulty", "hard"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(saved.getId()));
+
+        mockMvc.perform(get("/api/questions/random").param("examCode", "ei_olemassa"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getQuestionPage_returnsSummariesWithoutAnswers() throws Exception {
+        questionService.createQuestion(Question.builder()
+                .examCode("pue_k2025")
+                .subject("religion")
+                .questionNumber(1)
+                .questionText("Mikä on uskonto?")
+                .correctAnswer("salainen vastaus")
+                .points(6)
+                .difficulty("medium")
+                .build());
+
+        mockMvc.perform(get("/api/questions/page").param("subject", "religion").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].questionPreview").value("Mikä on uskonto?"))
+                .andExpect(jsonPath("$.items[0].correctAnswer").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void importQuestions_jsonArray_reportsBatchesAndServesImportedQuestions() throws Exception {
+        String body = objectMapper.writeValueAsString(IntStream.rangeClosed(1, 5)
+                .mapToObj(n -> Question.builder()
+                        .examCode("pimp_k2025").subject("philosophy").questionNumber(n)
+                        .questionText("Tuotu kysymys " + n).points(3).difficulty("medium")
+                        .build())
+                .toList());
+
+        mockMvc.perform(post("/api/questions/import?batchSize=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(5))
+                .andExpect(jsonPath("$.rejected").value(0))
+                .andExpect(jsonPath("$.batches", hasSize(3)))
+                .andExpect(jsonPath("$.batches[2].size").value(1))
+                .andExpect(jsonPath("$.batches[2].importedSoFar").value(5));
+
+        mockMvc.perform(get("/api/questions/random").param("examCode", "pimp_k2025"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subject").value("philosophy"));
+    }
+
+    @Test
+    void importQuestions_ndjson_skipsRecordsWithoutSubject() throws Exception {
+        String body = """
+                {"examCode":"pnd_k2025","subject":"geography","questionNumber":1,"questionText":"Ensimmäinen"}
+                {"examCode":"pnd_k2025","questionNumber":2,"questionText":"Ei aihetta"}
+                {"examCode":"pnd_k2025","subject":"geography","questionNumber":3,"questionText":"Kolmas"}
+                """;
+
+        mockMvc.perform(post("/api/questions/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.batches", hasSize(1)));
+    }
+
+    @Test
+    void importQuestions_malformedRecord_returns400() throws Exception {
+        mockMvc.perform(post("/api/questions/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"examCode\":\"pbad_k2025\",\"subject\":\"x\"}\n{\"examCode\": oops}\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchQuestions_findsCreatedQuestionAndForgetsDeletedOne() throws Exception {
+        Question saved = questionService.createQuestion(Question.builder()
+                .examCode("pge_k2025").subject("geography")
+                .questionNumber(2).questionText("Selitä jäätiköiden muodostuminen Skandinaviassa")
+                .build());
+
+        mockMvc.perform(get("/api/questions/search").param("q", "jäätikkö jäätiköiden"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].question.id").value(saved.getId()))
+                .andExpect(jsonPath("$[0].question.correctAnswer").doesNotExist())
+                .andExpect(jsonPath("$[0].score").isNumber());
+
+        questionService.deleteQuestion(saved.getId());
+
+        mockMvc.perform(get("/api/questions/search").param("q", "jäätiköiden"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     @Test
     void deleteQuestion_returnsSuccessMessage() throws Exception {
         Question saved = questionService.createQuestion(Question.builder()
@@ -2,7 +2,11 @@ package com.anteteno.yoprep.controller;
 
 import com.anteteno.yoprep.entity.Question;
 import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.security.AuthTokenService;
+import com.anteteno.yoprep.service.AiEvaluationService;
+import com.anteteno.yoprep.service.EvaluationBatcher;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,11 +14,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +38,19 @@ class SubmissionControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    // Keeps the test off the real Anthropic API
+    @MockitoBean
+    private EvaluationBatcher evaluationBatcher;
+
+    @BeforeEach
+    void stubEvaluation() {
+        when(evaluationBatcher.evaluate(any(Question.class), any(String.class), any()))
+                .thenReturn(Mono.just(new AiEvaluationService.EvaluationResult("l", "Oikein", 6)));
+    }
+
     private Long createTestUser() throws Exception {
         User user = User.builder()
                 .username("submitter_" + System.nanoTime())
@@ -46,6 +67,10 @@ class SubmissionControllerTest {
         return objectMapper.readTree(response).get("id").asLong();
     }
 
+    private String bearer(Long userId) {
+        return "Bearer " + authTokenService.issue(userId, "submitter").token();
+    }
+
     private Long createTestQuestion() throws Exception {
         Question question = Question.builder()
                 .subject("mathematics")
@@ -71,12 +96,12 @@ class SubmissionControllerTest {
         Long questionId = createTestQuestion();
 
         Map<String, Object> body = Map.of(
-                "userId", userId,
                 "questionId", questionId,
                 "answerText", "4"
         );
 
         mockMvc.perform(post("/api/submissions")
+                        .header("Authorization", bearer(userId))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(body)))
                 .andExpect(status().isOk())
@@ -87,17 +112,114 @@ class SubmissionControllerTest {
     }
 
     @Test
-    void getByUser_returnsList() throws Exception {
+    void createSubmission_takesUserFromTokenAndIgnoresBodyUserId() throws Exception {
+        Long userId = createTestUser();
+        Long questionId = createTestQuestion();
+
+        mockMvc.perform(post("/api/submissions")
+                        .header("Authorization", bearer(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "userId", userId + 1, "questionId", questionId, "answerText", "4"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId));
+    }
+
+    @Test
+    void submissionsAndProgress_withoutToken_return401() throws Exception {
         Long userId = createTestUser();
+        Long questionId = createTestQuestion();
 
+        mockMvc.perform(post("/api/submissions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "userId", userId, "questionId", questionId, "answerText", "4"))))
+                .andExpect(status().isUnauthorized());
         mockMvc.perform(get("/api/submissions/user/" + userId))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/progress/" + userId))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void createSubmission_persistsTokenUsageAndCountsItForTheUser() throws Exception {
+        when(evaluationBatcher.evaluate(any(Question.class), any(String.class), any()))
+                .thenReturn(Mono.just(new AiEvaluationService.EvaluationResult("l", "Oikein", 6, 150, 40)));
+        Long userId = createTestUser();
+        Long questionId = createTestQuestion();
+
+        mockMvc.perform(post("/api/submissions")
+                        .header("Authorization", bearer(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("questionId", questionId, "answerText", "4"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inputTokens").value(150))
+                .andExpect(jsonPath("$.outputTokens").value(40));
+
+        mockMvc.perform(get("/api/usage/" + userId).header("Authorization", bearer(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sinceStartup.evaluations").value(1))
+                .andExpect(jsonPath("$.sinceStartup.totalTokens").value(190))
+                .andExpect(jsonPath("$.tokensToday").value(190));
+    }
+
+    @Test
+    void usageAndStats_requireAToken() throws Exception {
+        Long userId = createTestUser();
+
+        mockMvc.perform(get("/api/usage"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/stats/ai-limiter"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/usage").header("Authorization", bearer(userId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/stats/ai-limiter").header("Authorization", bearer(userId)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getByUser_returnsList() throws Exception {
+        Long userId = createTestUser();
+
+        mockMvc.perform(get("/api/submissions/user/" + userId).header("Authorization", bearer(userId)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray());
     }
 
+    @Test
+    void getByUser_returnsCompactRowsWithoutUserOrQuestionText() throws Exception {
+        Long userId = createTestUser();
+        Long questionId = createTestQuestion();
+        String created = mockMvc.perform(post("/api/submissions")
+                        .header("Authorization", bearer(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("questionId", questionId, "answerText", "4"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long submissionId = objectMapper.readTree(created).get("id").asLong();
+
+        mockMvc.perform(get("/api/submissions/user/" + userId).header("Authorization", bearer(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].question.id").value(questionId))
+                .andExpect(jsonPath("$[0].question.subject").value("mathematics"))
+                .andExpect(jsonPath("$[0].question.questionText").doesNotExist())
+                .andExpect(jsonPath("$[0].user").doesNotExist())
+                .andExpect(jsonPath("$[0].answerText").doesNotExist());
+
+        mockMvc.perform(get("/api/submissions/" + submissionId).header("Authorization", bearer(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId))
+                .andExpect(jsonPath("$.answerText").value("4"))
+                .andExpect(jsonPath("$.aiFeedback").value("Oikein"))
+                .andExpect(jsonPath("$.user").doesNotExist());
+        mockMvc.perform(get("/api/submissions/" + submissionId).header("Authorization", bearer(createTestUser())))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void getById_notFound_returnsError() throws Exception {
-        mockMvc.perform(get("/api/submissions/99999"))
+        mockMvc.perform(get("/api/submissions/99999").header("Authorization", bearer(createTestUser())))
                 .andExpect(status().is4xxClientError());
     }
 
@@ -154,4 +276,26 @@ class SubmissionControllerTest {
                         .content(objectMapper.writeValueAsString(credentials)))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    void getProgress_countsGradedSubmissionsPerSubject() throws Exception {
+        Long userId = createTestUser();
+        Long questionId = createTestQuestion();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/submissions")
+                            .header("Authorization", bearer(userId))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of("questionId", questionId, "answerText", "4"))))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/progress/" + userId).header("Authorization", bearer(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSubmissions").value(2))
+                .andExpect(jsonPath("$.subjects", hasSize(1)))
+                .andExpect(jsonPath("$.subjects[0].subject").value("mathematics"))
+                .andExpect(jsonPath("$.subjects[0].averageScore").value(6.0))
+                .andExpect(jsonPath("$.subjects[0].bestScore").value(6));
+    }
 }
@@ -11,6 +11,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Map;
+
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,6 +47,90 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.createdAt").isNotEmpty());
     }
 
+    @Test
+    void login_returnsSignedTokenWithoutPassword() throws Exception {
+        String token = registerAndLogin("tokenuser");
+
+        mockMvc.perform(get("/api/progress/" + userIdOf(token))
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tokenRequests_rejectInvalidTokenAndOtherUsersData() throws Exception {
+        String token = registerAndLogin("tokenowner");
+
+        mockMvc.perform(get("/api/progress/" + userIdOf(token))
+                        .header("Authorization", "Bearer " + token + "x"))
+                .andExpect(status().isUnauthorized());
+        // A bad token is ignored where no login is needed
+        mockMvc.perform(get("/api/questions")
+                        .header("Authorization", "Bearer " + token + "x"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/progress/" + (userIdOf(token) + 1000))
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void deleteUser_requiresTheUsersOwnToken() throws Exception {
+        String token = registerAndLogin("poistaja");
+        String other = registerAndLogin("toinen");
+
+        mockMvc.perform(delete("/api/users/" + userIdOf(token)))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/api/users/" + userIdOf(token))
+                        .header("Authorization", "Bearer " + other))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/" + userIdOf(token)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deleteUser_removesUserAndRejectsTheirTokens() throws Exception {
+        String token = registerAndLogin("poistettava");
+        long id = userIdOf(token);
+
+        mockMvc.perform(delete("/api/users/" + id)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/" + id))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/submissions")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("questionId", 1, "answerText", "x"))))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/api/users/" + id)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        // The identity cache forgot the username once the delete committed
+        registerAndLogin("poistettava");
+    }
+
+    private String registerAndLogin(String username) throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(User.builder()
+                                .username(username).email(username + "@example.com").password("Salasana123").build())))
+                .andExpect(status().isOk());
+
+        String response = mockMvc.perform(post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("username", username, "password", "Salasana123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(username))
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.expiresAt").isNotEmpty())
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("token").asText();
+    }
+
+    private static long userIdOf(String token) {
+        return Long.parseLong(token.substring(0, token.indexOf('.')));
+    }
+
     @Test
     void createUser_passwordIsHashed() throws Exception {
         User user = User.builder()
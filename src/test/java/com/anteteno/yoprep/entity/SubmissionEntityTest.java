@@ -0,0 +1,43 @@
+package com.anteteno.yoprep.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SubmissionEntityTests")
+class SubmissionEntityTest {
+
+    @Test
+    void equalsComparesIdOnly() {
+        Submission saved = Submission.builder().id(1L).answerText("4").build();
+        Submission reloaded = Submission.builder().id(1L).answerText("4").gradingStatus(GradingStatus.GRADED).build();
+
+        assertThat(saved).isEqualTo(reloaded).hasSameHashCodeAs(reloaded);
+        assertThat(saved).isNotEqualTo(Submission.builder().id(2L).answerText("4").build());
+        assertThat(Submission.builder().answerText("4").build()).isNotEqualTo(Submission.builder().answerText("4").build());
+    }
+
+    @Test
+    void hashCodeStaysTheSameWhenIdIsAssigned() {
+        Submission submission = Submission.builder().answerText("4").build();
+        Set<Submission> submissions = new HashSet<>(Set.of(submission));
+
+        submission.setId(5L);
+
+        assertThat(submissions).contains(submission);
+    }
+
+    @Test
+    void toStringLeavesOutUserAndQuestion() {
+        Submission submission = Submission.builder().id(1L).answerText("4")
+                .user(User.builder().id(7L).username("testi").build())
+                .question(Question.builder().id(3L).questionText("Laske 2 + 2").build())
+                .build();
+
+        assertThat(submission.toString()).contains("answerText=4").doesNotContain("testi", "Laske");
+    }
+}
@@ -1,10 +1,12 @@
 package com.anteteno.yoprep.repository;
 
+import com.anteteno.yoprep.dto.QuestionSummary;
 import com.anteteno.yoprep.entity.Question;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -104,4 +106,30 @@ class QuestionRepositoryTest {
         assertThat(found.getPoints()).isEqualTo(6);
         assertThat(found.getDifficulty()).isEqualTo("hard");
     }
+
+    @Test
+    void findSummariesAfter_seeksPastCursorAndFilters() {
+        Question first = questionRepository.save(Question.builder()
+                .examCode("pbio_k2025").subject("biology").questionNumber(1)
+                .questionText("Mikä on solu?").correctAnswer("Elämän perusyksikkö").points(2).difficulty("easy")
+                .build());
+        Question second = questionRepository.save(Question.builder()
+                .examCode("pbio_k2025").subject("biology").questionNumber(2)
+                .questionText("x".repeat(250)).correctAnswer("-").points(6).difficulty("hard")
+                .build());
+        questionRepository.save(Question.builder()
+                .examCode("pge_k2025").subject("geography").questionNumber(1)
+                .questionText("Mikä on Suomen pääkaupunki?").correctAnswer("Helsinki").points(2).difficulty("easy")
+                .build());
+
+        List<QuestionSummary> page = questionRepository.findSummariesAfter(0, "biology", null, null, Limit.of(10));
+        assertThat(page).extracting(QuestionSummary::id).containsExactly(first.getId(), second.getId());
+        assertThat(page.get(1).questionPreview()).hasSize(QuestionSummary.PREVIEW_LENGTH);
+
+        List<QuestionSummary> next = questionRepository.findSummariesAfter(first.getId(), "biology", null, null, Limit.of(10));
+        assertThat(next).extracting(QuestionSummary::id).containsExactly(second.getId());
+
+        List<QuestionSummary> easy = questionRepository.findSummariesAfter(0, null, "pbio_k2025", "easy", Limit.of(10));
+        assertThat(easy).extracting(QuestionSummary::id).containsExactly(first.getId());
+    }
 }
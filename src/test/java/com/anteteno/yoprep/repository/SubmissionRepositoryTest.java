@@ -0,0 +1,151 @@
+package com.anteteno.yoprep.repository;
+
+import com.anteteno.yoprep.dto.SubjectStats;
+import com.anteteno.yoprep.dto.UserTokenTotal;
+import com.anteteno.yoprep.entity.GradingStatus;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.entity.Submission;
+import com.anteteno.yoprep.entity.User;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("SubmissionRepositoryTests")
+class SubmissionRepositoryTest {
+
+    private static final int HISTORY_SIZE = 3000;
+    private static final List<String> SUBJECTS = List.of("chemistry", "history", "mathematics", "physics");
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void aggregateByUserIdGroupBySubject_matchesInMemoryGroupingOnLargeHistory() {
+        User user = entityManager.persist(User.builder()
+                .username("history_" + System.nanoTime())
+                .email("history_" + System.nanoTime() + "@example.com")
+                .password("Password123")
+                .build());
+        List<Question> questions = new ArrayList<>();
+        for (String subject : SUBJECTS) {
+            questions.add(entityManager.persist(Question.builder()
+                    .examCode("test_k2025").subject(subject).questionNumber(1)
+                    .questionText("Kysymys: " + subject).correctAnswer("-").points(6).difficulty("medium")
+                    .build()));
+        }
+
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            entityManager.persist(Submission.builder()
+                    .user(user)
+                    .question(questions.get(i % questions.size()))
+                    .answerText("Vastaus " + i)
+                    .aiGrade("m")
+                    .aiFeedback("Palaute")
+                    .aiScore(i % 5 == 0 ? null : i % 7)
+                    .gradingStatus(i % 5 == 0 ? GradingStatus.AWAITING_REGRADE : GradingStatus.GRADED)
+                    .build());
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Long userId = user.getId();
+        Map<String, SubjectStats> inMemory = groupInMemory(userId);
+        Map<String, SubjectStats> inDatabase = submissionRepository.aggregateByUserIdGroupBySubject(userId).stream()
+                .collect(Collectors.toMap(SubjectStats::subject, stats -> stats, (a, b) -> a, TreeMap::new));
+
+        assertThat(inDatabase.keySet()).containsExactlyElementsOf(SUBJECTS);
+        inDatabase.forEach((subject, stats) -> {
+            SubjectStats expected = inMemory.get(subject);
+            assertThat(stats.totalAnswers()).isEqualTo(expected.totalAnswers());
+            assertThat(stats.bestScore()).isEqualTo(expected.bestScore());
+            assertThat(stats.averageScore()).isCloseTo(expected.averageScore(), offset(1e-9));
+        });
+    }
+
+    @Test
+    void findTop50ByGradingStatus_fetchesQuestionButLeavesUserLazy() {
+        User user = entityManager.persist(User.builder()
+                .username("lazy_" + System.nanoTime())
+                .email("lazy_" + System.nanoTime() + "@example.com")
+                .password("Password123")
+                .build());
+        Question question = entityManager.persist(Question.builder()
+                .examCode("test_k2025").subject("physics").questionNumber(3).questionText("Valon nopeus?")
+                .build());
+        entityManager.persist(Submission.builder()
+                .user(user).question(question).answerText("3e8 m/s")
+                .gradingStatus(GradingStatus.AWAITING_REGRADE)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Submission> waiting = submissionRepository
+                .findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus.AWAITING_REGRADE);
+
+        assertThat(waiting).hasSize(1);
+        assertThat(Hibernate.isInitialized(waiting.get(0).getQuestion())).isTrue();
+        assertThat(Hibernate.isInitialized(waiting.get(0).getUser())).isFalse();
+    }
+
+    @Test
+    void sumTokensByUserSince_countsTokensByTheDayTheyWereGraded() {
+        User user = entityManager.persist(User.builder()
+                .username("tokens_" + System.nanoTime())
+                .email("tokens_" + System.nanoTime() + "@example.com")
+                .password("Password123")
+                .build());
+        Question question = entityManager.persist(Question.builder()
+                .examCode("test_k2025").subject("physics").questionNumber(4).questionText("Mikä on teho?")
+                .build());
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        for (LocalDateTime gradedAt : List.of(today.minusHours(2), today.plusHours(1))) {
+            entityManager.persist(Submission.builder()
+                    .user(user).question(question).answerText("P = W / t")
+                    .inputTokens(100).outputTokens(20).gradedAt(gradedAt)
+                    .gradingStatus(GradingStatus.GRADED)
+                    .build());
+        }
+        entityManager.flush();
+
+        assertThat(submissionRepository.sumTokensByUserSince(today))
+                .containsExactly(new UserTokenTotal(user.getId(), 120));
+    }
+
+    // The previous ProgressController approach: load every submission, group and average in Java
+    private Map<String, SubjectStats> groupInMemory(Long userId) {
+        entityManager.clear();
+        return submissionRepository.findByUserId(userId).stream()
+                .collect(Collectors.groupingBy(s -> s.getQuestion().getSubject(), TreeMap::new, Collectors.toList()))
+                .entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    List<Submission> subs = entry.getValue();
+                    return new SubjectStats(entry.getKey(), subs.size(),
+                            subs.stream().filter(s -> s.getAiScore() != null).mapToInt(Submission::getAiScore).average().orElse(0.0),
+                            subs.stream().filter(s -> s.getAiScore() != null).mapToInt(Submission::getAiScore).max().orElse(0));
+                }, (a, b) -> a, TreeMap::new));
+    }
+}
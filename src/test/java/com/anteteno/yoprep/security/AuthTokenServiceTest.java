@@ -0,0 +1,51 @@
+package com.anteteno.yoprep.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AuthTokenServiceTests")
+class AuthTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-16T08:00:00Z");
+
+    private final AuthTokenService tokens = service("test-secret", NOW);
+
+    @Test
+    void verify_returnsUserOfIssuedToken() {
+        AuthTokenService.IssuedToken issued = tokens.issue(42L, "matti.meikäläinen");
+
+        assertThat(issued.expiresAt()).isEqualTo(NOW.plus(Duration.ofHours(2)));
+        assertThat(tokens.verify(issued.token())).contains(new AuthenticatedUser(42L, "matti.meikäläinen"));
+    }
+
+    @Test
+    void verify_rejectsTamperedForeignAndMalformedTokens() {
+        String token = tokens.issue(42L, "matti").token();
+        String otherUser = token.replaceFirst("^42\\.", "43.");
+
+        assertThat(tokens.verify(otherUser)).isEmpty();
+        assertThat(service("another-secret", NOW).verify(token)).isEmpty();
+        assertThat(tokens.verify("not-a-token")).isEmpty();
+        assertThat(tokens.verify("a.b.c.%%%")).isEmpty();
+    }
+
+    @Test
+    void verify_rejectsExpiredToken() {
+        String token = tokens.issue(42L, "matti").token();
+
+        assertThat(service("test-secret", NOW.plus(Duration.ofMinutes(119))).verify(token)).isPresent();
+        assertThat(service("test-secret", NOW.plus(Duration.ofHours(2))).verify(token)).isEmpty();
+    }
+
+    private static AuthTokenService service(String secret, Instant now) {
+        return new AuthTokenService(secret, Duration.ofHours(2), Optional.of(Clock.fixed(now, ZoneOffset.UTC)));
+    }
+}
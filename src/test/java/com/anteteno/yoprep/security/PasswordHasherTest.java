@@ -0,0 +1,51 @@
+package com.anteteno.yoprep.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PasswordHasherTests")
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(4, Duration.ofMillis(250), 1, 10, Duration.ofSeconds(5));
+
+    @AfterEach
+    void shutdown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void encode_producesHashThatMatchesOnlyTheSamePassword() {
+        String hash = hasher.encode("Salasana123");
+
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(hasher.matches("Salasana123", hash)).isTrue();
+        assertThat(hasher.matches("salasana123", hash)).isFalse();
+        assertThat(hasher.stats()).containsEntry("cost", 4).containsEntry("rejected", 0L);
+    }
+
+    @Test
+    void needsRehash_onlyForLowerCostOrNonBcryptHashes() {
+        PasswordHasher stronger = new PasswordHasher(6, Duration.ofMillis(250), 1, 10, Duration.ofSeconds(5));
+        try {
+            assertThat(hasher.needsRehash(hasher.encode("x"))).isFalse();
+            assertThat(stronger.needsRehash(hasher.encode("x"))).isTrue();
+            // A cost calibrated lower elsewhere never downgrades a stronger hash
+            assertThat(hasher.needsRehash(stronger.encode("x"))).isFalse();
+            assertThat(hasher.needsRehash("$2a$10$abcdefghijklmnopqrstuuMKXz6V0pAYsV3eVmCxq1rfQE0Eq/.u")).isFalse();
+            assertThat(hasher.needsRehash("plain")).isTrue();
+        } finally {
+            stronger.shutdown();
+        }
+    }
+
+    @Test
+    void calibrate_staysWithinBoundsOfTheBudget() {
+        assertThat(PasswordHasher.calibrate(Duration.ZERO)).isEqualTo(PasswordHasher.MIN_COST);
+        assertThat(PasswordHasher.calibrate(Duration.ofHours(1))).isEqualTo(PasswordHasher.MAX_COST);
+    }
+}
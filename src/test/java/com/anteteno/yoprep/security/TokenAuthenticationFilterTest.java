@@ -0,0 +1,91 @@
+package com.anteteno.yoprep.security;
+
+import com.anteteno.yoprep.service.UserIdentityCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenAuthenticationFilterTests")
+class TokenAuthenticationFilterTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-16T08:00:00Z");
+
+    @Mock
+    private UserIdentityCache userIdentityCache;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validToken_authenticatesTheUser() throws Exception {
+        AuthTokenService tokens = service(NOW);
+        when(userIdentityCache.get(42L)).thenReturn(Optional.of(new UserIdentityCache.Identity(42L, "matti")));
+
+        MockFilterChain chain = filter(tokens, tokens.issue(42L, "matti").token(), "/api/progress/42");
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isEqualTo(new AuthenticatedUser(42L, "matti"));
+    }
+
+    @Test
+    void expiredToken_onPublicEndpoint_continuesAnonymously() throws Exception {
+        String expired = service(NOW.minus(Duration.ofHours(3))).issue(42L, "matti").token();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockFilterChain chain = new MockFilterChain();
+        new TokenAuthenticationFilter(service(NOW), userIdentityCache)
+                .doFilter(request(expired, "/api/questions"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void deletedUsersToken_continuesAnonymously() throws Exception {
+        AuthTokenService tokens = service(NOW);
+        when(userIdentityCache.get(42L)).thenReturn(Optional.empty());
+
+        MockFilterChain chain = filter(tokens, tokens.issue(42L, "matti").token(), "/api/questions");
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private MockFilterChain filter(AuthTokenService tokens, String token, String uri) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        new TokenAuthenticationFilter(tokens, userIdentityCache)
+                .doFilter(request(token, uri), new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private static MockHttpServletRequest request(String token, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static AuthTokenService service(Instant now) {
+        return new AuthTokenService("test-secret", Duration.ofHours(2), Optional.of(Clock.fixed(now, ZoneOffset.UTC)));
+    }
+}
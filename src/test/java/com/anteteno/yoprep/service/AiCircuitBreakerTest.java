@@ -0,0 +1,92 @@
+package com.anteteno.yoprep.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AiCircuitBreakerTests")
+class AiCircuitBreakerTest {
+
+    private static void recordCalls(AiCircuitBreaker breaker, int count, boolean failed) {
+        for (int i = 0; i < count; i++) {
+            breaker.tryAcquire();
+            breaker.onResult(failed);
+        }
+    }
+
+    @Test
+    void opensWhenFailureRateCrossesThreshold() {
+        AiCircuitBreaker breaker = new AiCircuitBreaker(10, 4, 0.5, Duration.ofSeconds(20), Duration.ofMinutes(1), 1);
+
+        recordCalls(breaker, 2, false);
+        recordCalls(breaker, 1, true);
+        assertThat(breaker.getState()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+
+        recordCalls(breaker, 1, true);
+        assertThat(breaker.getState()).isEqualTo(AiCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void halfOpenTrialSuccess_closesCircuit() throws InterruptedException {
+        AiCircuitBreaker breaker = new AiCircuitBreaker(4, 4, 0.5, Duration.ofSeconds(20), Duration.ofMillis(20), 1);
+        recordCalls(breaker, 4, true);
+        assertThat(breaker.isCallPermitted()).isFalse();
+
+        Thread.sleep(30);
+
+        assertThat(breaker.isCallPermitted()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(AiCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onResult(false);
+        assertThat(breaker.getState()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenTrialFailure_reopensCircuit() throws InterruptedException {
+        AiCircuitBreaker breaker = new AiCircuitBreaker(4, 4, 0.5, Duration.ofSeconds(20), Duration.ofMillis(20), 1);
+        recordCalls(breaker, 4, true);
+        Thread.sleep(30);
+
+        breaker.tryAcquire();
+        breaker.onResult(true);
+
+        assertThat(breaker.getState()).isEqualTo(AiCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void protect_slowCallsCountAsFailures() {
+        AiCircuitBreaker breaker = new AiCircuitBreaker(2, 2, 0.5, Duration.ofMillis(1), Duration.ofMinutes(1), 1);
+
+        for (int i = 0; i < 2; i++) {
+            breaker.protect(Mono.delay(Duration.ofMillis(10)).thenReturn("slow")).block();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(AiCircuitBreaker.State.OPEN);
+        StepVerifier.create(breaker.protect(Mono.just("fast")))
+                .expectError(AiUnavailableException.class)
+                .verify();
+    }
+
+    @Test
+    void protect_clientErrorsDoNotCountAgainstProvider() {
+        AiCircuitBreaker breaker = new AiCircuitBreaker(2, 2, 0.5, Duration.ofSeconds(20), Duration.ofMinutes(1), 1);
+        Mono<String> unauthorized = Mono.error(WebClientResponseException.create(
+                HttpStatus.UNAUTHORIZED.value(), "Unauthorized", null, null, null));
+
+        for (int i = 0; i < 2; i++) {
+            breaker.protect(unauthorized).onErrorResume(e -> Mono.empty()).block();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,104 @@
+package com.anteteno.yoprep.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AiRequestLimiterTests")
+class AiRequestLimiterTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<Sinks.One<String>> running = new ArrayList<>();
+
+    private Mono<String> trackedCall(String name) {
+        started.add(name);
+        Sinks.One<String> sink = Sinks.one();
+        running.add(sink);
+        return sink.asMono();
+    }
+
+    private void completeOldest() {
+        Sinks.One<String> sink = running.remove(0);
+        sink.tryEmitValue("done");
+    }
+
+    @Test
+    void submit_queuedWorkIsDispatchedRoundRobinPerUser() {
+        AiRequestLimiter limiter = new AiRequestLimiter(1000, 1000, 1, 100, 10);
+
+        limiter.submit(1L, () -> trackedCall("a1"));
+        limiter.submit(1L, () -> trackedCall("a2"));
+        limiter.submit(1L, () -> trackedCall("a3"));
+        limiter.submit(2L, () -> trackedCall("b1"));
+
+        for (int i = 0; i < 3; i++) {
+            completeOldest();
+        }
+
+        assertThat(started).containsExactly("a1", "a2", "b1", "a3");
+    }
+
+    @Test
+    void submit_respectsMaxConcurrency() {
+        AiRequestLimiter limiter = new AiRequestLimiter(1000, 1000, 2, 100, 10);
+
+        for (long user = 1; user <= 5; user++) {
+            long id = user;
+            limiter.submit(id, () -> trackedCall("u" + id));
+        }
+
+        assertThat(started).hasSize(2);
+        assertThat(limiter.stats()).containsEntry("inFlight", 2).containsEntry("queued", 3);
+    }
+
+    @Test
+    void submit_userOverShare_isRejectedWith429AndRetryAfter() {
+        AiRequestLimiter limiter = new AiRequestLimiter(1, 1, 1, 100, 2);
+        limiter.submit(1L, () -> trackedCall("running"));
+        limiter.submit(1L, () -> trackedCall("queued-1"));
+        limiter.submit(1L, () -> trackedCall("queued-2"));
+
+        assertThatThrownBy(() -> limiter.submit(1L, () -> trackedCall("rejected")))
+                .isInstanceOfSatisfying(AiCapacityExceededException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+                });
+
+        // Other users are still admitted
+        limiter.submit(2L, () -> trackedCall("other"));
+    }
+
+    @Test
+    void submit_globalQueueFull_isRejectedWith503() {
+        AiRequestLimiter limiter = new AiRequestLimiter(1, 1, 1, 2, 10);
+        limiter.submit(1L, () -> trackedCall("running"));
+        limiter.submit(2L, () -> trackedCall("queued-1"));
+        limiter.submit(3L, () -> trackedCall("queued-2"));
+
+        assertThatThrownBy(() -> limiter.submit(4L, () -> trackedCall("rejected")))
+                .isInstanceOfSatisfying(AiCapacityExceededException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void submit_outOfTokens_waitsForRefill() {
+        AiRequestLimiter limiter = new AiRequestLimiter(20, 1, 10, 100, 10);
+
+        String first = limiter.submit(1L, () -> Mono.just("first")).block(Duration.ofSeconds(1));
+        String second = limiter.submit(2L, () -> Mono.just("second")).block(Duration.ofSeconds(1));
+
+        assertThat(first).isEqualTo("first");
+        assertThat(second).isEqualTo("second");
+        assertThat(limiter.stats()).containsEntry("queued", 0);
+    }
+}
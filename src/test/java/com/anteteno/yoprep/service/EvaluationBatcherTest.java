@@ -0,0 +1,111 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EvaluationBatcherTests")
+class EvaluationBatcherTest {
+
+    @Mock
+    private AiEvaluationService aiEvaluationService;
+
+    private final EvaluationCache evaluationCache = new EvaluationCache(100, Duration.ofMinutes(5));
+
+    private final Question question = Question.builder()
+            .id(1L).subject("mathematics").examCode("pmat_k2025").questionText("Laske 2 + 2").points(2)
+            .build();
+
+    private static AiEvaluationService.EvaluationResult result(String grade) {
+        return new AiEvaluationService.EvaluationResult(grade, "Palaute", 1);
+    }
+
+    @Test
+    void evaluate_answersWithinWindow_areGradedInOneRequest() {
+        EvaluationBatcher batcher = new EvaluationBatcher(aiEvaluationService, evaluationCache, true, Duration.ofMillis(100), 10);
+        when(aiEvaluationService.evaluateBatch(eq(question), eq(List.of("4", "5")), eq(AiRequestLimiter.BATCH_KEY)))
+                .thenReturn(Mono.just(List.of(result("l"), result("i"))));
+
+        Mono<AiEvaluationService.EvaluationResult> first = batcher.evaluate(question, "4", 1L);
+        Mono<AiEvaluationService.EvaluationResult> second = batcher.evaluate(question, "5", 2L);
+
+        // Both callers subscribe before the batch is dispatched, as concurrent submissions would
+        var results = Mono.zip(first, second).block(Duration.ofSeconds(5));
+
+        assertThat(results.getT1().grade()).isEqualTo("l");
+        assertThat(results.getT2().grade()).isEqualTo("i");
+        verify(aiEvaluationService, times(1)).evaluateBatch(any(Question.class), anyList(), any());
+    }
+
+    @Test
+    void evaluate_fullBatch_dispatchesWithoutWaitingForWindow() {
+        EvaluationBatcher batcher = new EvaluationBatcher(aiEvaluationService, evaluationCache, true, Duration.ofMinutes(10), 2);
+        when(aiEvaluationService.evaluateBatch(eq(question), eq(List.of("4", "5")), eq(AiRequestLimiter.BATCH_KEY)))
+                .thenReturn(Mono.just(List.of(result("l"), result("i"))));
+
+        Mono<AiEvaluationService.EvaluationResult> first = batcher.evaluate(question, "4", 1L);
+        Mono<AiEvaluationService.EvaluationResult> second = batcher.evaluate(question, "5", 1L);
+
+        // Both callers subscribe before the batch is dispatched, as concurrent submissions would
+        var results = Mono.zip(first, second).block(Duration.ofSeconds(1));
+
+        assertThat(results.getT1().grade()).isEqualTo("l");
+        assertThat(results.getT2().grade()).isEqualTo("i");
+    }
+
+    @Test
+    void evaluate_twoUsersInOneBatch_chargesNeitherUsersQueue() {
+        // One request slot, already taken, and room for a single waiting answer per user
+        AiRequestLimiter limiter = new AiRequestLimiter(100, 10, 1, 10, 1);
+        limiter.submit(3L, Mono::never).subscribe();
+        when(aiEvaluationService.evaluateBatch(eq(question), eq(List.of("4", "5")), any()))
+                .thenAnswer(invocation -> limiter.submit(invocation.getArgument(2),
+                        () -> Mono.just(List.of(result("l"), result("i")))));
+        EvaluationBatcher batcher = new EvaluationBatcher(aiEvaluationService, evaluationCache, true, Duration.ofMinutes(10), 2);
+
+        batcher.evaluate(question, "4", 1L).subscribe();
+        batcher.evaluate(question, "5", 2L).subscribe();
+
+        verify(aiEvaluationService).evaluateBatch(eq(question), anyList(), eq(AiRequestLimiter.BATCH_KEY));
+        assertThat(limiter.stats()).containsEntry("queued", 1).containsEntry("queuedUsers", 1);
+        // The waiting batch is in neither user's queue, so each still has room for an answer of their own
+        assertThatCode(() -> limiter.checkCapacity(1L)).doesNotThrowAnyException();
+        assertThatCode(() -> limiter.checkCapacity(2L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void evaluate_cachedAnswer_skipsBatching() {
+        EvaluationBatcher batcher = new EvaluationBatcher(aiEvaluationService, evaluationCache, true, Duration.ofMinutes(10), 10);
+        evaluationCache.put(1L, "4", result("l"));
+
+        assertThat(batcher.evaluate(question, "4", 1L).block(Duration.ofSeconds(1)).grade()).isEqualTo("l");
+        verify(aiEvaluationService, never()).evaluateBatch(any(Question.class), anyList(), any());
+    }
+
+    @Test
+    void evaluate_disabled_delegatesToSingleEvaluation() {
+        EvaluationBatcher batcher = new EvaluationBatcher(aiEvaluationService, evaluationCache, false, Duration.ofMillis(100), 10);
+        when(aiEvaluationService.evaluate(question, "4", 1L)).thenReturn(Mono.just(result("l")));
+
+        assertThat(batcher.evaluate(question, "4", 1L).block().grade()).isEqualTo("l");
+        verify(aiEvaluationService, never()).evaluateBatch(any(Question.class), anyList(), any());
+    }
+}
@@ -0,0 +1,84 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.event.QuestionChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("EvaluationCacheTests")
+class EvaluationCacheTest {
+
+    private EvaluationCache evaluationCache;
+
+    private final AiEvaluationService.EvaluationResult result =
+            new AiEvaluationService.EvaluationResult("l", "Oikein", 2);
+
+    @BeforeEach
+    void setUp() {
+        evaluationCache = new EvaluationCache(100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void get_normalizesWhitespaceAndCase() {
+        evaluationCache.put(1L, "Veden kaava on H2O", result);
+
+        assertThat(evaluationCache.get(1L, "  veden   KAAVA on\nh2o ")).contains(result);
+    }
+
+    @Test
+    void get_differentQuestion_misses() {
+        evaluationCache.put(1L, "4", result);
+
+        assertThat(evaluationCache.get(2L, "4")).isEmpty();
+    }
+
+    @Test
+    void get_nullQuestionId_isNeverCached() {
+        evaluationCache.put(null, "4", result);
+
+        assertThat(evaluationCache.get(null, "4")).isEmpty();
+    }
+
+    @Test
+    void stats_countsHitsAndMisses() {
+        evaluationCache.put(1L, "4", result);
+        evaluationCache.get(1L, "4");
+        evaluationCache.get(1L, "5");
+
+        assertThat(evaluationCache.stats())
+                .containsEntry("hits", 1L)
+                .containsEntry("misses", 1L)
+                .containsEntry("size", 1L);
+    }
+
+    @Test
+    void onQuestionChanged_updatedOrDeleted_invalidatesOnlyThatQuestion() {
+        evaluationCache.put(1L, "4", result);
+        evaluationCache.put(1L, "neljä", result);
+        evaluationCache.put(2L, "4", result);
+
+        evaluationCache.onQuestionChanged(new QuestionChangedEvent(1L, QuestionChangedEvent.Type.UPDATED));
+
+        assertThat(evaluationCache.get(1L, "4")).isEmpty();
+        assertThat(evaluationCache.get(1L, "neljä")).isEmpty();
+        assertThat(evaluationCache.get(2L, "4")).contains(result);
+    }
+
+    @Test
+    void put_generationFromBeforeInvalidation_isDropped() {
+        long generation = evaluationCache.generation(1L);
+
+        evaluationCache.invalidateQuestion(1L);
+        evaluationCache.put(1L, "4", result, generation);
+
+        assertThat(evaluationCache.get(1L, "4")).isEmpty();
+
+        evaluationCache.put(1L, "4", result, evaluationCache.generation(1L));
+
+        assertThat(evaluationCache.get(1L, "4")).contains(result);
+    }
+}
@@ -0,0 +1,96 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.ArchiveIngestionReport;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("ExamArchiveIngestionServiceTests")
+class ExamArchiveIngestionServiceTest {
+
+    private static final int PAGES = 40;
+    private static final int QUESTIONS_PER_PAGE = 10;
+
+    @TempDir
+    static Path archive;
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("questions.archive.directory", archive::toString);
+        registry.add("questions.archive.parallelism", () -> 4);
+    }
+
+    @Autowired
+    private ExamArchiveIngestionService ingestionService;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Test
+    void ingest_parsesPagesAndSkipsExistingAndRepeatedQuestions() throws IOException {
+        Path session = Files.createDirectories(archive.resolve("s2023"));
+        for (int page = 0; page < PAGES; page++) {
+            Files.writeString(session.resolve("pbio_s2023_" + page + ".html"), page(page));
+        }
+        // Same questions again under another file name
+        Files.writeString(session.resolve("zz_copy.html"), page(0));
+        Files.writeString(session.resolve("notes.txt"), "not a page");
+        Files.writeString(session.resolve("broken.html"), "<html><meta name=\"exam-code\" content=\"pbio_s2023\">");
+        questionService.createQuestion(Question.builder()
+                .examCode("pbio_s2023").subject("biology").questionNumber(1).questionText("Jo olemassa").build());
+
+        ArchiveIngestionReport report = ingestionService.ingest("s2023");
+
+        int total = PAGES * QUESTIONS_PER_PAGE;
+        assertThat(report.pages()).isEqualTo(PAGES + 2);
+        assertThat(report.failedPages()).isZero();
+        assertThat(report.questionsFound()).isEqualTo(total + QUESTIONS_PER_PAGE);
+        assertThat(report.duplicates()).isEqualTo(QUESTIONS_PER_PAGE + 1);
+        assertThat(report.load().imported()).isEqualTo(total - 1);
+        assertThat(report.pagesPerSecond()).isPositive();
+        assertThat(questionRepository.findKeysByExamCodeIn(List.of("pbio_s2023"))).hasSize(total);
+
+        // A second run finds nothing new
+        assertThat(ingestionService.ingest("s2023").load().imported()).isZero();
+    }
+
+    @Test
+    void ingest_pathOutsideArchive_isRejected() {
+        assertThatThrownBy(() -> ingestionService.ingest("../"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("inside the exam archive");
+    }
+
+    private static String page(int page) {
+        StringBuilder html = new StringBuilder("<html><head><meta name=\"exam-code\" content=\"pbio_s2023\"></head><body>");
+        for (int i = 1; i <= QUESTIONS_PER_PAGE; i++) {
+            int number = page * QUESTIONS_PER_PAGE + i;
+            html.append("<section class=\"question\" data-question-number=\"").append(number).append("\">")
+                    .append("<h3 class=\"question-title\">").append(number).append(". Solubiologia</h3>")
+                    .append("<div class=\"question-text\">").append("Selitä solun rakenne. ".repeat(20)).append("</div>")
+                    .append("<span class=\"max-score\">15 p.</span></section>");
+        }
+        return html.append("</body></html>").toString();
+    }
+}
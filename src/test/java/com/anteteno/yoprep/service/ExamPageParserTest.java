@@ -0,0 +1,74 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ExamPageParserTests")
+class ExamPageParserTest {
+
+    private final ExamPageParser parser = new ExamPageParser();
+
+    @Test
+    void parse_readsMetaAndQuestionElements() {
+        String html = """
+                <html><head>
+                  <meta name="exam-code" content="pfys_s2024">
+                  <meta name="subject" content="physics">
+                </head><body>
+                  <div class="question" data-question-number="1">
+                    <h3 class="question-title">1. Heiluri</h3>
+                    <div class="question-text">Laske heilurin jaksonaika, kun pituus on 2,0 m.</div>
+                    <span class="max-score">12 p.</span>
+                  </div>
+                  <div class="question">
+                    <h3 class="question-title">2. Valo</h3>
+                    <p>Selitä valon taittuminen.</p>
+                    <span class="max-score">(15 pistettä)</span>
+                  </div>
+                </body></html>
+                """;
+
+        List<Question> questions = parser.parse(Jsoup.parse(html), "ignored");
+
+        assertThat(questions).hasSize(2);
+        assertThat(questions.get(0).getExamCode()).isEqualTo("pfys_s2024");
+        assertThat(questions.get(0).getSubject()).isEqualTo("physics");
+        assertThat(questions.get(0).getQuestionNumber()).isEqualTo(1);
+        assertThat(questions.get(0).getQuestionText()).isEqualTo("Laske heilurin jaksonaika, kun pituus on 2,0 m.");
+        assertThat(questions.get(0).getPoints()).isEqualTo(12);
+        assertThat(questions.get(1).getQuestionNumber()).isEqualTo(2);
+        assertThat(questions.get(1).getQuestionText()).isEqualTo("Selitä valon taittuminen.");
+        assertThat(questions.get(1).getPoints()).isEqualTo(15);
+    }
+
+    @Test
+    void parse_withoutMeta_derivesExamCodeAndSubjectFromFileName() {
+        String html = "<div class=\"question\" data-question-number=\"4\"><div class=\"question-text\">Derivoi.</div></div>";
+
+        List<Question> questions = parser.parse(Jsoup.parse(html), "PMAT_K2025");
+
+        assertThat(questions).singleElement().satisfies(question -> {
+            assertThat(question.getExamCode()).isEqualTo("pmat_k2025");
+            assertThat(question.getSubject()).isEqualTo("mathematics");
+            assertThat(question.getPoints()).isNull();
+        });
+    }
+
+    @Test
+    void parse_skipsQuestionsWithoutNumberOrText_andPagesWithUnknownSubject() {
+        String html = """
+                <div class="question"><div class="question-text">Ei numeroa</div></div>
+                <div class="question" data-question-number="2"><div class="question-text"> </div></div>
+                """;
+
+        assertThat(parser.parse(Jsoup.parse(html), "pmat_k2025")).isEmpty();
+        assertThat(parser.parse(Jsoup.parse("<div class=\"question\" data-question-number=\"1\">x</div>"), "pxyz_k2025"))
+                .isEmpty();
+    }
+}
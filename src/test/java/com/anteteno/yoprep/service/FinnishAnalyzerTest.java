@@ -0,0 +1,33 @@
+package com.anteteno.yoprep.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FinnishAnalyzerTests")
+class FinnishAnalyzerTest {
+
+    @Test
+    void analyze_inflectedFormsShareAStem() {
+        assertThat(FinnishAnalyzer.analyze("Yhtälön ratkaisu yhtälössä ja yhtälöt"))
+                .containsExactly("yhtäl", "ratkais", "yhtäl", "yhtäl");
+        assertThat(FinnishAnalyzer.analyze("funktio funktiota funktion funktiokin")).containsOnly("funkti");
+        assertThat(FinnishAnalyzer.analyze("kaava kaavan kaavaa")).containsOnly("kaav");
+        assertThat(FinnishAnalyzer.analyze("metaani metaanin metaanista")).containsOnly("metaan");
+    }
+
+    @Test
+    void analyze_splitsOnPunctuationAndKeepsNumbers() {
+        assertThat(FinnishAnalyzer.analyze("CO2-päästöt (2019), Å-saaret!"))
+                .containsExactly("co2", "pääst", "2019", "å", "saar");
+    }
+
+    @Test
+    void analyze_dropsStopWordsAndKeepsShortWordsWhole() {
+        assertThat(FinnishAnalyzer.analyze("Mikä on veden kemiallinen kaava?"))
+                .containsExactly("ved", "kemiallin", "kaav");
+        assertThat(FinnishAnalyzer.stem("sää")).isEqualTo("sää");
+        assertThat(FinnishAnalyzer.stem("työ")).isEqualTo("työ");
+    }
+}
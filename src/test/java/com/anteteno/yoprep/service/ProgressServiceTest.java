@@ -0,0 +1,129 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.SubjectStats;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.entity.SubjectProgress;
+import com.anteteno.yoprep.entity.Submission;
+import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.repository.SubjectProgressRepository;
+import com.anteteno.yoprep.repository.SubmissionRepository;
+import com.anteteno.yoprep.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProgressServiceTests")
+class ProgressServiceTest {
+
+    @Mock
+    private SubmissionRepository submissionRepository;
+
+    @Mock
+    private SubjectProgressRepository subjectProgressRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private ProgressService progressService;
+
+    @Test
+    void saveGraded_firstInSubject_createsAggregate() {
+        Submission submission = submission(4);
+        when(submissionRepository.save(submission)).thenReturn(submission);
+        when(subjectProgressRepository.findByUserIdAndSubject(1L, "physics")).thenReturn(Optional.empty());
+
+        progressService.saveGraded(submission);
+
+        ArgumentCaptor<SubjectProgress> saved = ArgumentCaptor.forClass(SubjectProgress.class);
+        verify(userRepository).findForUpdateById(1L);
+        verify(subjectProgressRepository).save(saved.capture());
+        assertThat(saved.getValue().getAnswerCount()).isEqualTo(1);
+        assertThat(saved.getValue().getScoreSum()).isEqualTo(4);
+        assertThat(saved.getValue().getBestScore()).isEqualTo(4);
+        assertThat(saved.getValue().getLastSubmittedAt()).isEqualTo(submission.getSubmittedAt());
+    }
+
+    @Test
+    void saveGraded_existingAggregate_addsToTotals() {
+        Submission submission = submission(2);
+        SubjectProgress progress = SubjectProgress.builder()
+                .userId(1L).subject("physics").answerCount(3).scoreSum(15).bestScore(6)
+                .lastSubmittedAt(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .build();
+        when(submissionRepository.save(submission)).thenReturn(submission);
+        when(subjectProgressRepository.findByUserIdAndSubject(1L, "physics")).thenReturn(Optional.of(progress));
+
+        progressService.saveGraded(submission);
+
+        assertThat(progress.getAnswerCount()).isEqualTo(4);
+        assertThat(progress.getScoreSum()).isEqualTo(17);
+        assertThat(progress.getBestScore()).isEqualTo(6);
+        assertThat(progress.getLastSubmittedAt()).isEqualTo(submission.getSubmittedAt());
+        verify(subjectProgressRepository).save(any(SubjectProgress.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getProgress_readsAggregates() {
+        when(subjectProgressRepository.findByUserIdOrderBySubject(1L)).thenReturn(List.of(
+                SubjectProgress.builder().userId(1L).subject("mathematics").answerCount(3).scoreSum(10).bestScore(6).build(),
+                SubjectProgress.builder().userId(1L).subject("physics").answerCount(1).scoreSum(2).bestScore(2).build()
+        ));
+
+        Map<String, Object> progress = progressService.getProgress(1L);
+
+        assertThat(progress.get("totalSubmissions")).isEqualTo(4);
+        List<Map<String, Object>> subjects = (List<Map<String, Object>>) progress.get("subjects");
+        assertThat(subjects).hasSize(2);
+        assertThat(subjects.get(0).get("averageScore")).isEqualTo(3.3);
+        assertThat(subjects.get(0).get("bestScore")).isEqualTo(6);
+        verify(submissionRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getProgressFromSubmissions_usesAggregateQuery() {
+        when(submissionRepository.aggregateByUserIdGroupBySubject(1L)).thenReturn(List.of(
+                new SubjectStats("history", 2, null, null),
+                new SubjectStats("physics", 5, 3.25, 6)
+        ));
+
+        Map<String, Object> progress = progressService.getProgressFromSubmissions(1L);
+
+        assertThat(progress.get("totalSubmissions")).isEqualTo(7L);
+        List<Map<String, Object>> subjects = (List<Map<String, Object>>) progress.get("subjects");
+        assertThat(subjects.get(0).get("averageScore")).isEqualTo(0.0);
+        assertThat(subjects.get(1).get("averageScore")).isEqualTo(3.3);
+        assertThat(subjects.get(1).get("bestScore")).isEqualTo(6);
+        verify(submissionRepository, never()).findByUserId(any());
+    }
+
+    private static Submission submission(int score) {
+        return Submission.builder()
+                .id(10L)
+                .user(User.builder().id(1L).username("testi").build())
+                .question(Question.builder().id(2L).subject("physics").build())
+                .answerText("vastaus")
+                .aiGrade("m")
+                .aiScore(score)
+                .submittedAt(LocalDateTime.of(2025, 3, 1, 9, 30))
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.QuestionChangedEvent;
+import com.anteteno.yoprep.event.QuestionsImportedEvent;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuestionCatalogTests")
+class QuestionCatalogTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @InjectMocks
+    private QuestionCatalog questionCatalog;
+
+    private static List<Question> questions() {
+        return List.of(
+                question(1L, "mathematics", "easy", "pmat_k2025"),
+                question(2L, "mathematics", "hard", "pmat_k2025"),
+                question(3L, "physics", "hard", "pfy_k2025"),
+                question(4L, "physics", "easy", "pfy_s2024")
+        );
+    }
+
+    @Test
+    void reads_loadSnapshotOnceAndServeFromMemory() {
+        when(questionRepository.findAll()).thenReturn(questions());
+
+        assertThat(questionCatalog.findById(2L)).get().extracting(Question::getDifficulty).isEqualTo("hard");
+        assertThat(questionCatalog.findBySubject("physics")).extracting(Question::getId).containsExactly(3L, 4L);
+        assertThat(questionCatalog.findByExamCode("pmat_k2025")).hasSize(2);
+        assertThat(questionCatalog.findById(99L)).isEmpty();
+
+        verify(questionRepository, times(1)).findAll();
+    }
+
+    @Test
+    void pickRandom_filtersBySubjectDifficultyAndExamCode() {
+        when(questionRepository.findAll()).thenReturn(questions());
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(questionCatalog.pickRandom("physics", null, null)).get()
+                    .extracting(Question::getId).isIn(3L, 4L);
+            assertThat(questionCatalog.pickRandom("mathematics", "hard", null)).get()
+                    .extracting(Question::getId).isEqualTo(2L);
+        }
+        assertThat(questionCatalog.pickRandom("physics", "hard", "pfy_s2024")).isEmpty();
+        assertThat(questionCatalog.pickRandom("history", null, null)).isEmpty();
+    }
+
+    @Test
+    void onQuestionChanged_swapsInUpdatedSnapshot() {
+        when(questionRepository.findAll()).thenReturn(questions());
+        questionCatalog.reload();
+        List<Question> before = questionCatalog.findBySubject("physics");
+
+        Question moved = question(3L, "chemistry", "hard", "pke_k2025");
+        when(questionRepository.findById(3L)).thenReturn(Optional.of(moved));
+        questionCatalog.onQuestionChanged(new QuestionChangedEvent(3L, QuestionChangedEvent.Type.UPDATED));
+        questionCatalog.onQuestionChanged(new QuestionChangedEvent(1L, QuestionChangedEvent.Type.DELETED));
+
+        assertThat(questionCatalog.findById(3L)).contains(moved);
+        assertThat(questionCatalog.findById(1L)).isEmpty();
+        assertThat(questionCatalog.findBySubject("physics")).extracting(Question::getId).containsExactly(4L);
+        assertThat(questionCatalog.findBySubject("chemistry")).containsExactly(moved);
+        // readers holding the old snapshot's lists are unaffected
+        assertThat(before).extracting(Question::getId).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void onQuestionsImported_addsWholeBatchWithOneLookup() {
+        when(questionRepository.findAll()).thenReturn(questions());
+        questionCatalog.reload();
+
+        List<Question> imported = List.of(
+                question(151L, "history", "easy", "phi_k2025"),
+                question(152L, "history", "hard", "phi_k2025"));
+        when(questionRepository.findAllById(List.of(151L, 152L))).thenReturn(imported);
+        questionCatalog.onQuestionsImported(new QuestionsImportedEvent(List.of(151L, 152L)));
+
+        assertThat(questionCatalog.findBySubject("history")).extracting(Question::getId).containsExactly(151L, 152L);
+        assertThat(questionCatalog.findById(1L)).isPresent();
+        verify(questionRepository, times(1)).findAllById(List.of(151L, 152L));
+    }
+
+    private static Question question(Long id, String subject, String difficulty, String examCode) {
+        return Question.builder()
+                .id(id)
+                .subject(subject)
+                .difficulty(difficulty)
+                .examCode(examCode)
+                .questionText("Kysymys " + id)
+                .build();
+    }
+}
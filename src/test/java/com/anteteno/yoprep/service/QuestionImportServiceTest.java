@@ -0,0 +1,63 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.ImportReport;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DisplayName("QuestionImportServiceTests")
+class QuestionImportServiceTest {
+
+    private static final int ROWS = 1200;
+
+    @Autowired
+    private QuestionImportService questionImportService;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void importQuestions_insertsInJdbcBatchesWithPooledIds() throws Exception {
+        String ndjson = IntStream.rangeClosed(1, ROWS)
+                .mapToObj(n -> "{\"examCode\":\"pbulk_k2025\",\"subject\":\"biology\",\"questionNumber\":" + n
+                        + ",\"questionText\":\"Kysymys " + n + "\",\"points\":6}")
+                .collect(Collectors.joining("\n"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ImportReport report = questionImportService.importQuestions(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), 500);
+
+        assertThat(report.imported()).isEqualTo(ROWS);
+        assertThat(report.batches()).extracting(ImportReport.Batch::size).containsExactly(500, 500, 200);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        // One insert statement per JDBC batch plus one sequence call per 50 ids, instead of one round trip per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ROWS / 20);
+
+        List<Question> stored = questionRepository.findAll().stream()
+                .filter(question -> "pbulk_k2025".equals(question.getExamCode()))
+                .toList();
+        assertThat(stored).hasSize(ROWS);
+        assertThat(stored).extracting(Question::getId).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,112 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.SearchHit;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.QuestionChangedEvent;
+import com.anteteno.yoprep.event.QuestionsImportedEvent;
+import com.anteteno.yoprep.repository.QuestionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuestionSearchIndexTests")
+class QuestionSearchIndexTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @InjectMocks
+    private QuestionSearchIndex searchIndex;
+
+    @Test
+    void search_ranksByBm25AndMatchesInflectedForms() {
+        when(questionRepository.findAll()).thenReturn(List.of(
+                question(1L, "mathematics", "Ratkaise yhtälö 2x + 5 = 15."),
+                question(2L, "mathematics", "Yhtälön ratkaisu: ratkaise yhtälöpari ja tarkista yhtälöt sijoittamalla."),
+                question(3L, "physics", "Laske kappaleen kiihtyvyys, kun massa on 10 kg ja voima 50 N."),
+                question(4L, "history", "Minä vuonna Suomi itsenäistyi?")));
+
+        List<SearchHit> hits = searchIndex.search("yhtälöiden ratkaiseminen", null, 10);
+
+        assertThat(hits).extracting(hit -> hit.question().id()).containsExactly(2L, 1L);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+        assertThat(hits.get(0).question().questionPreview()).startsWith("Yhtälön ratkaisu");
+    }
+
+    @Test
+    void search_matchesFinnishSubjectNameAndFiltersBySubject() {
+        when(questionRepository.findAll()).thenReturn(List.of(
+                question(1L, "mathematics", "Laske 2 + 2"),
+                question(2L, "physics", "Laske valon nopeus")));
+
+        assertThat(searchIndex.search("matematiikka", null, 10)).extracting(hit -> hit.question().id())
+                .containsExactly(1L);
+        assertThat(searchIndex.search("laske", "physics", 10)).extracting(hit -> hit.question().id())
+                .containsExactly(2L);
+        assertThat(searchIndex.search("ja on", null, 10)).isEmpty();
+    }
+
+    @Test
+    void events_updateIndexIncrementally() {
+        when(questionRepository.findAll()).thenReturn(List.of(question(1L, "chemistry", "Veden kemiallinen kaava")));
+        searchIndex.rebuild();
+
+        when(questionRepository.findById(2L)).thenReturn(Optional.of(question(2L, "chemistry", "Hiilidioksidin kaava")));
+        searchIndex.onQuestionChanged(new QuestionChangedEvent(2L, QuestionChangedEvent.Type.CREATED));
+        assertThat(searchIndex.search("kaava", null, 10)).hasSize(2);
+
+        searchIndex.onQuestionChanged(new QuestionChangedEvent(1L, QuestionChangedEvent.Type.DELETED));
+        assertThat(searchIndex.search("kaava", null, 10)).extracting(hit -> hit.question().id()).containsExactly(2L);
+        assertThat(searchIndex.search("veden", null, 10)).isEmpty();
+
+        when(questionRepository.findById(2L)).thenReturn(Optional.of(question(2L, "chemistry", "Metaanin rakenne")));
+        searchIndex.onQuestionChanged(new QuestionChangedEvent(2L, QuestionChangedEvent.Type.UPDATED));
+        assertThat(searchIndex.search("kaava", null, 10)).isEmpty();
+        assertThat(searchIndex.search("metaani", null, 10)).hasSize(1);
+
+        when(questionRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(
+                question(3L, "chemistry", "Metaanin palaminen"), question(4L, "physics", "Metaanin tiheys")));
+        searchIndex.onQuestionsImported(new QuestionsImportedEvent(List.of(3L, 4L)));
+        assertThat(searchIndex.search("metaanin", null, 10)).hasSize(3);
+    }
+
+    @Test
+    void events_deletingMostQuestions_compactsSlotsAndKeepsResults() {
+        List<Question> questions = LongStream.rangeClosed(1, 200)
+                .mapToObj(id -> question(id, id % 2 == 0 ? "physics" : "history", "Kysymys numero " + id))
+                .toList();
+        when(questionRepository.findAll()).thenReturn(questions);
+        searchIndex.rebuild();
+
+        for (long id = 1; id <= 150; id++) {
+            searchIndex.onQuestionChanged(new QuestionChangedEvent(id, QuestionChangedEvent.Type.DELETED));
+        }
+
+        assertThat((List<?>) ReflectionTestUtils.getField(searchIndex, "documents")).hasSizeLessThan(200);
+        assertThat(searchIndex.search("kysymys", null, 100)).hasSize(50)
+                .extracting(hit -> hit.question().id()).allMatch(id -> id > 150);
+        assertThat(searchIndex.search("kysymys", "physics", 100)).hasSize(25);
+        assertThat(searchIndex.search("199", null, 10)).extracting(hit -> hit.question().id()).containsExactly(199L);
+    }
+
+    private static Question question(Long id, String subject, String text) {
+        return Question.builder()
+                .id(id)
+                .examCode("p_k2025")
+                .subject(subject)
+                .questionText(text)
+                .build();
+    }
+}
@@ -1,6 +1,9 @@
 package com.anteteno.yoprep.service;
 
+import com.anteteno.yoprep.dto.QuestionPage;
+import com.anteteno.yoprep.dto.QuestionSummary;
 import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.QuestionChangedEvent;
 import com.anteteno.yoprep.repository.QuestionRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,6 +11,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Collections;
@@ -26,6 +31,12 @@ class QuestionServiceTest {
     @Mock
     private QuestionRepository questionRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private QuestionCatalog questionCatalog;
+
     @InjectMocks
     private QuestionService questionService;
 
@@ -119,6 +130,43 @@ class QuestionServiceTest {
         verify(questionRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    void deleteQuestion_publishesDeletedEvent() {
+        when(questionRepository.existsById(1L)).thenReturn(true);
+
+        questionService.deleteQuestion(1L);
+
+        verify(eventPublisher).publishEvent(new QuestionChangedEvent(1L, QuestionChangedEvent.Type.DELETED));
+    }
+
+    @Test
+    void updateQuestion_existingId_savesAndPublishesUpdatedEvent() {
+        Question changed = Question.builder()
+                .examCode("pmat_k2025")
+                .subject("mathematics")
+                .questionText("Laske 3 + 3")
+                .build();
+        when(questionRepository.existsById(1L)).thenReturn(true);
+        when(questionRepository.save(any(Question.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Question result = questionService.updateQuestion(1L, changed);
+
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getQuestionText()).isEqualTo("Laske 3 + 3");
+        verify(eventPublisher).publishEvent(new QuestionChangedEvent(1L, QuestionChangedEvent.Type.UPDATED));
+    }
+
+    @Test
+    void updateQuestion_notFound_throwsException() {
+        when(questionRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> questionService.updateQuestion(99L, new Question()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("not found");
+
+        verify(questionRepository, never()).save(any());
+    }
+
     @Test
     void deleteQuestion_notFound_throwsException() {
         when(questionRepository.existsById(99L)).thenReturn(false);
@@ -130,26 +178,70 @@ class QuestionServiceTest {
         verify(questionRepository, never()).deleteById(any());
     }
 
+    @Test
+    void getQuestionById_inCatalog_skipsRepository() {
+        Question question = Question.builder().id(3L).subject("physics").questionText("Valon nopeus?").build();
+        when(questionCatalog.findById(3L)).thenReturn(Optional.of(question));
+
+        Question result = questionService.getQuestionById(3L);
+
+        assertThat(result).isSameAs(question);
+        verify(questionRepository, never()).findById(any());
+    }
+
     @Test
     void getRandomQuestion_withQuestions_returnsOne() {
-        List<Question> questions = List.of(
-                Question.builder().id(1L).questionText("Kysymys 1").build(),
-                Question.builder().id(2L).questionText("Kysymys 2").build()
-        );
-        when(questionRepository.findAll()).thenReturn(questions);
+        Question question = Question.builder().id(2L).questionText("Kysymys 2").build();
+        when(questionCatalog.pickRandom(null, null, null)).thenReturn(Optional.of(question));
 
-        Question result = questionService.getRandomQuestion();
+        Question result = questionService.getRandomQuestion(null, null, null);
 
         assertThat(result).isNotNull();
         assertThat(result.getQuestionText()).startsWith("Kysymys");
+        verify(questionRepository, never()).findAll();
     }
 
     @Test
     void getRandomQuestion_emptyDatabase_throwsException() {
-        when(questionRepository.findAll()).thenReturn(Collections.emptyList());
+        when(questionCatalog.pickRandom(null, null, null)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> questionService.getRandomQuestion())
+        assertThatThrownBy(() -> questionService.getRandomQuestion(null, null, null))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasMessageContaining("No questions available");
     }
+
+    @Test
+    void getRandomQuestion_noMatchForFilter_throwsException() {
+        when(questionCatalog.pickRandom("physics", "hard", null)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> questionService.getRandomQuestion("physics", "hard", null))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("No questions available");
+    }
+
+    @Test
+    void getQuestionPage_moreRowsThanPageSize_returnsCursor() {
+        List<QuestionSummary> rows = List.of(
+                new QuestionSummary(3L, "pmat_k2025", "mathematics", 1, 2, "easy", "Laske 2 + 2"),
+                new QuestionSummary(5L, "pmat_k2025", "mathematics", 2, 4, "medium", "Ratkaise yhtälö"),
+                new QuestionSummary(8L, "pmat_k2025", "mathematics", 3, 6, "hard", "Derivoi")
+        );
+        when(questionRepository.findSummariesAfter(0, "mathematics", null, null, Limit.of(3))).thenReturn(rows);
+
+        QuestionPage page = questionService.getQuestionPage(null, 2, "mathematics", null, null);
+
+        assertThat(page.items()).extracting(QuestionSummary::id).containsExactly(3L, 5L);
+        assertThat(page.nextCursor()).isEqualTo(5L);
+    }
+
+    @Test
+    void getQuestionPage_lastPage_hasNoCursorAndClampsSize() {
+        when(questionRepository.findSummariesAfter(5L, null, null, null, Limit.of(QuestionService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of(new QuestionSummary(8L, "pmat_k2025", "mathematics", 3, 6, "hard", "Derivoi")));
+
+        QuestionPage page = questionService.getQuestionPage(5L, 10_000, null, null, null);
+
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
 }
@@ -0,0 +1,34 @@
+package com.anteteno.yoprep.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StreamingFeedbackParserTests")
+class StreamingFeedbackParserTest {
+
+    @Test
+    void append_holdsBackResultLineSplitAcrossDeltas() {
+        StreamingFeedbackParser parser = new StreamingFeedbackParser();
+
+        String visible = parser.append("Hyvä alku, mutta perustelu puuttuu. ")
+                + parser.append("ARVO")
+                + parser.append("SANA: c; PISTEET: 3");
+
+        assertThat(visible).isEqualTo("Hyvä alku, mutta perustelu puuttuu. ");
+        assertThat(parser.flush()).isEmpty();
+        assertThat(parser.result()).isEqualTo(
+                new AiEvaluationService.EvaluationResult("c", "Hyvä alku, mutta perustelu puuttuu.", 3));
+    }
+
+    @Test
+    void result_withoutResultLine_returnsFallbackAndFlushesText() {
+        StreamingFeedbackParser parser = new StreamingFeedbackParser();
+
+        String visible = parser.append("Vastaus on oikein");
+
+        assertThat(visible + parser.flush()).isEqualTo("Vastaus on oikein");
+        assertThat(parser.result().isFallback()).isTrue();
+    }
+}
@@ -1,23 +1,47 @@
 package com.anteteno.yoprep.service;
 
+import com.anteteno.yoprep.dto.QuestionRef;
+import com.anteteno.yoprep.dto.SubmissionSummary;
+import com.anteteno.yoprep.dto.SubmissionView;
+import com.anteteno.yoprep.entity.GradingStatus;
 import com.anteteno.yoprep.entity.Question;
 import com.anteteno.yoprep.entity.Submission;
 import com.anteteno.yoprep.entity.User;
 import com.anteteno.yoprep.repository.SubmissionRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,12 +57,36 @@ class SubmissionServiceTest {
     @Mock
     private QuestionService questionService;
 
+    @Mock
+    private EvaluationBatcher evaluationBatcher;
+
     @Mock
     private AiEvaluationService aiEvaluationService;
 
+    @Mock
+    private Executor gradingExecutor;
+
+    @Mock
+    private AiRequestLimiter aiRequestLimiter;
+
+    @Mock
+    private AiCircuitBreaker aiCircuitBreaker;
+
+    @Mock
+    private ProgressService progressService;
+
+    @Mock
+    private TokenUsageTracker tokenUsageTracker;
+
     @InjectMocks
     private SubmissionService submissionService;
 
+    @BeforeEach
+    void budgetLeft() {
+        lenient().when(tokenUsageTracker.tryReserve(any())).thenReturn(true);
+        ReflectionTestUtils.setField(submissionService, "pendingTimeout", Duration.ofMinutes(10));
+    }
+
     @Test
     void createSubmission_savesWithAiEvaluation() {
         User user = User.builder().id(1L).username("testi").build();
@@ -46,11 +94,11 @@ class SubmissionServiceTest {
                 .id(1L).subject("mathematics").questionText("1+1=?").points(6).examCode("math_k2024")
                 .build();
 
-        when(userService.getUserById(1L)).thenReturn(user);
+        when(userService.getUserReference(1L)).thenReturn(user);
         when(questionService.getQuestionById(1L)).thenReturn(question);
-        when(aiEvaluationService.evaluateAnswer(any(Question.class), any(String.class)))
-                .thenReturn(new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5));
-        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> {
+        when(evaluationBatcher.evaluate(any(Question.class), any(String.class), any()))
+                .thenReturn(Mono.just(new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5, 120, 30)));
+        when(progressService.saveGraded(any(Submission.class))).thenAnswer(invocation -> {
             Submission s = invocation.getArgument(0);
             s.setId(1L);
             return s;
@@ -62,34 +110,420 @@ class SubmissionServiceTest {
         assertThat(result.getAiFeedback()).isEqualTo("Hyva vastaus");
         assertThat(result.getAiScore()).isEqualTo(5);
         assertThat(result.getAnswerText()).isEqualTo("2");
+        assertThat(result.getInputTokens()).isEqualTo(120);
+        assertThat(result.getOutputTokens()).isEqualTo(30);
+        assertThat(result.getGradedAt()).isNotNull();
+        verify(tokenUsageTracker).record(eq(1L), eq(question), any(AiEvaluationService.EvaluationResult.class));
+    }
+
+    @Test
+    void createSubmission_overBudget_rejectsWithoutGrading() {
+        when(userService.getUserReference(1L)).thenReturn(User.builder().id(1L).username("testi").build());
+        when(questionService.getQuestionById(1L)).thenReturn(Question.builder().id(1L).subject("mathematics").build());
+        when(tokenUsageTracker.tryReserve(1L)).thenReturn(false);
+        when(tokenUsageTracker.secondsUntilReset()).thenReturn(3600L);
+
+        assertThatThrownBy(() -> submissionService.createSubmission(1L, 1L, "2"))
+                .isInstanceOf(AiCapacityExceededException.class)
+                .hasMessageContaining("budget");
+        verify(evaluationBatcher, never()).evaluate(any(Question.class), any(String.class), any());
+        verify(submissionRepository, never()).save(any(Submission.class));
+    }
+
+    @Test
+    void submitForGrading_overBudgetWithDeferral_savesDeferredWithoutGrading() {
+        ReflectionTestUtils.setField(submissionService, "deferOverBudget", true);
+        when(userService.getUserReference(1L)).thenReturn(User.builder().id(1L).username("testi").build());
+        when(questionService.getQuestionById(1L)).thenReturn(Question.builder().id(1L).subject("mathematics").build());
+        when(tokenUsageTracker.tryReserve(1L)).thenReturn(false);
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Submission result = submissionService.submitForGrading(1L, 1L, "2");
+
+        assertThat(result.getGradingStatus()).isEqualTo(GradingStatus.DEFERRED);
+        verify(evaluationBatcher, never()).evaluate(any(Question.class), any(String.class), any());
+    }
+
+    @Test
+    void submitForGrading_savesPendingAndGradesInBackground() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder()
+                .id(1L).subject("mathematics").questionText("1+1=?").points(6).examCode("math_k2024")
+                .build();
+        Sinks.One<AiEvaluationService.EvaluationResult> evaluation = Sinks.one();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(evaluationBatcher.evaluate(any(Question.class), any(String.class), any())).thenReturn(evaluation.asMono());
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(gradingExecutor).execute(any(Runnable.class));
+
+        Submission result = submissionService.submitForGrading(1L, 1L, "2");
+
+        assertThat(result.getGradingStatus()).isEqualTo(GradingStatus.PENDING);
+        assertThat(result.getAiGrade()).isNull();
+
+        evaluation.tryEmitValue(new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5));
+
+        assertThat(result.getGradingStatus()).isEqualTo(GradingStatus.GRADED);
+        assertThat(result.getAiGrade()).isEqualTo("m");
+        assertThat(result.getAiScore()).isEqualTo(5);
+    }
+
+    @Test
+    void submitForGrading_limiterFullWhenCallIsMade_marksForRegrade() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(evaluationBatcher.evaluate(question, "2", 1L)).thenReturn(Mono.error(new AiCapacityExceededException(
+                HttpStatus.SERVICE_UNAVAILABLE, "AI grading is at capacity", 5)));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(gradingExecutor).execute(any(Runnable.class));
+
+        Submission result = submissionService.submitForGrading(1L, 1L, "2");
+
+        assertThat(result.getGradingStatus()).isEqualTo(GradingStatus.AWAITING_REGRADE);
+        assertThat(result.getAiScore()).isNull();
+    }
+
+    @Test
+    void submitForGrading_gradingPoolFull_releasesBudgetAndMarksForRegrade() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+        Sinks.One<AiEvaluationService.EvaluationResult> evaluation = Sinks.one();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(evaluationBatcher.evaluate(question, "2", 1L)).thenReturn(evaluation.asMono());
+
+        // One thread, no queue, and that thread is busy: the next task is rejected
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(1);
+        pool.setMaxPoolSize(1);
+        pool.setQueueCapacity(0);
+        pool.initialize();
+        CountDownLatch busy = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ReflectionTestUtils.setField(submissionService, "gradingExecutor", pool);
+
+        try {
+            Submission result = submissionService.submitForGrading(1L, 1L, "2");
+            assertThat(result.getGradingStatus()).isEqualTo(GradingStatus.PENDING);
+
+            evaluation.tryEmitValue(new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5));
+
+            assertThat(result.getGradingStatus()).isEqualTo(GradingStatus.AWAITING_REGRADE);
+            assertThat(result.getAiScore()).isNull();
+            verify(tokenUsageTracker).release(1L);
+            verify(progressService, never()).saveGraded(any());
+        } finally {
+            busy.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void createSubmission_providerUnavailable_marksForRegradeWithoutFakeScore() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        when(evaluationBatcher.evaluate(any(Question.class), any(String.class), any()))
+                .thenReturn(Mono.error(new AiUnavailableException("AI provider circuit is open")));
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Submission result = submissionService.createSubmission(1L, 1L, "2");
+
+        assertThat(result.getGradingStatus()).isEqualTo(GradingStatus.AWAITING_REGRADE);
+        assertThat(result.getAiGrade()).isNull();
+        assertThat(result.getAiScore()).isNull();
+        verify(tokenUsageTracker).release(1L);
+    }
+
+    @Test
+    void regradePending_circuitOpen_doesNothing() {
+        when(aiCircuitBreaker.isCallPermitted()).thenReturn(false);
+
+        submissionService.regradePending();
+
+        verify(submissionRepository, never()).findTop50ByGradingStatusOrderBySubmittedAtAsc(any());
+    }
+
+    @Test
+    void regradePending_gradesWaitingSubmissions() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+        Submission waiting = Submission.builder().id(5L).user(user).question(question).answerText("2")
+                .gradingStatus(GradingStatus.AWAITING_REGRADE).build();
+
+        when(aiCircuitBreaker.isCallPermitted()).thenReturn(true);
+        when(submissionRepository.findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus.AWAITING_REGRADE))
+                .thenReturn(List.of(waiting));
+        when(evaluationBatcher.evaluate(question, "2", 1L))
+                .thenReturn(Mono.just(new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5)));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(gradingExecutor).execute(any(Runnable.class));
+
+        submissionService.regradePending();
+
+        assertThat(waiting.getGradingStatus()).isEqualTo(GradingStatus.GRADED);
+        assertThat(waiting.getAiScore()).isEqualTo(5);
+    }
+
+    @Test
+    void regradePending_regradesPendingSubmissionsWhoseGradingWasLost() {
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+        Submission stranded = Submission.builder().id(8L).user(User.builder().id(1L).build()).question(question)
+                .answerText("2").gradingStatus(GradingStatus.PENDING)
+                .gradingStartedAt(LocalDateTime.now().minusHours(1)).build();
+
+        when(aiCircuitBreaker.isCallPermitted()).thenReturn(true);
+        when(submissionRepository.findTop50ByGradingStatusOrderBySubmittedAtAsc(any())).thenReturn(List.of());
+        when(submissionRepository.findTop50ByGradingStatusAndGradingStartedAtBeforeOrderBySubmittedAtAsc(
+                eq(GradingStatus.PENDING), any(LocalDateTime.class))).thenReturn(List.of(stranded));
+        when(evaluationBatcher.evaluate(question, "2", 1L))
+                .thenReturn(Mono.just(new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5)));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(gradingExecutor).execute(any(Runnable.class));
+
+        submissionService.regradePending();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(submissionRepository).findTop50ByGradingStatusAndGradingStartedAtBeforeOrderBySubmittedAtAsc(
+                eq(GradingStatus.PENDING), cutoff.capture());
+        assertThat(cutoff.getValue()).isBefore(LocalDateTime.now().minusMinutes(9));
+        assertThat(stranded.getGradingStatus()).isEqualTo(GradingStatus.GRADED);
+        assertThat(stranded.getGradingStartedAt()).isAfter(LocalDateTime.now().minusMinutes(1));
+    }
+
+    @Test
+    void regradePending_gradesDeferredSubmissionsOnlyForUsersWithBudget() {
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+        Submission withBudget = Submission.builder().id(6L).user(User.builder().id(1L).build()).question(question)
+                .answerText("2").gradingStatus(GradingStatus.DEFERRED).build();
+        Submission overBudget = Submission.builder().id(7L).user(User.builder().id(2L).build()).question(question)
+                .answerText("3").gradingStatus(GradingStatus.DEFERRED).build();
+
+        when(aiCircuitBreaker.isCallPermitted()).thenReturn(true);
+        when(submissionRepository.findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus.AWAITING_REGRADE))
+                .thenReturn(List.of());
+        when(submissionRepository.findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus.DEFERRED))
+                .thenReturn(List.of(withBudget, overBudget));
+        when(tokenUsageTracker.tryReserve(any())).thenAnswer(invocation -> !invocation.getArgument(0).equals(2L));
+        when(evaluationBatcher.evaluate(question, "2", 1L))
+                .thenReturn(Mono.just(new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5)));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(gradingExecutor).execute(any(Runnable.class));
+
+        submissionService.regradePending();
+
+        assertThat(withBudget.getGradingStatus()).isEqualTo(GradingStatus.GRADED);
+        assertThat(overBudget.getGradingStatus()).isEqualTo(GradingStatus.DEFERRED);
+    }
+
+    @Test
+    void regradePending_reservesBudgetPerSubmission_stopsAUsersBacklogAtTheBudget() {
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+        User user = User.builder().id(1L).build();
+        Submission first = Submission.builder().id(6L).user(user).question(question)
+                .answerText("2").gradingStatus(GradingStatus.DEFERRED).build();
+        Submission second = Submission.builder().id(7L).user(user).question(question)
+                .answerText("3").gradingStatus(GradingStatus.DEFERRED).build();
+
+        when(aiCircuitBreaker.isCallPermitted()).thenReturn(true);
+        when(submissionRepository.findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus.AWAITING_REGRADE))
+                .thenReturn(List.of());
+        when(submissionRepository.findTop50ByGradingStatusOrderBySubmittedAtAsc(GradingStatus.DEFERRED))
+                .thenReturn(List.of(first, second));
+        // Room for one answer: the first reservation uses it up while that answer is still in flight
+        when(tokenUsageTracker.tryReserve(1L)).thenReturn(true, false);
+        when(evaluationBatcher.evaluate(question, "2", 1L)).thenReturn(Mono.never());
+
+        submissionService.regradePending();
+
+        assertThat(first.getGradingStatus()).isEqualTo(GradingStatus.PENDING);
+        assertThat(second.getGradingStatus()).isEqualTo(GradingStatus.DEFERRED);
+        verify(evaluationBatcher, never()).evaluate(question, "3", 1L);
+    }
+
+    @Test
+    void submitForGrading_limiterFull_rejectsBeforeSaving() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        doThrow(new AiCapacityExceededException(HttpStatus.TOO_MANY_REQUESTS, "Too many answers waiting for grading", 2))
+                .when(aiRequestLimiter).checkCapacity(1L);
+
+        assertThatThrownBy(() -> submissionService.submitForGrading(1L, 1L, "2"))
+                .isInstanceOf(AiCapacityExceededException.class)
+                .hasMessageContaining("Too many answers");
+        verify(submissionRepository, never()).save(any(Submission.class));
+        verify(tokenUsageTracker).release(1L);
+    }
+
+    @Test
+    void streamSubmission_forwardsFeedbackAndPersistsResult() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(aiEvaluationService.streamEvaluation(question, "2", 1L)).thenReturn(Flux.just(
+                new AiEvaluationService.EvaluationEvent.FeedbackDelta("Hyva "),
+                new AiEvaluationService.EvaluationEvent.FeedbackDelta("vastaus"),
+                new AiEvaluationService.EvaluationEvent.Completed(
+                        new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5))));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(gradingExecutor).execute(any(Runnable.class));
+
+        SubmissionService.GradingStream stream = submissionService.streamSubmission(1L, 1L, "2");
+
+        // The stream has already run to completion; a late subscriber still gets every event
+        StepVerifier.create(stream.events())
+                .expectNext(new AiEvaluationService.EvaluationEvent.FeedbackDelta("Hyva "))
+                .expectNext(new AiEvaluationService.EvaluationEvent.FeedbackDelta("vastaus"))
+                .expectNextMatches(event -> event instanceof AiEvaluationService.EvaluationEvent.Completed)
+                .verifyComplete();
+        assertThat(stream.submission().getGradingStatus()).isEqualTo(GradingStatus.GRADED);
+        assertThat(stream.submission().getAiScore()).isEqualTo(5);
+    }
+
+    @Test
+    void streamSubmission_providerUnavailable_marksForRegrade() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(aiEvaluationService.streamEvaluation(question, "2", 1L))
+                .thenReturn(Flux.error(new AiUnavailableException("AI provider circuit is open")));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(gradingExecutor).execute(any(Runnable.class));
+
+        SubmissionService.GradingStream stream = submissionService.streamSubmission(1L, 1L, "2");
+
+        StepVerifier.create(stream.events())
+                .expectError(AiUnavailableException.class)
+                .verify();
+        assertThat(stream.submission().getGradingStatus()).isEqualTo(GradingStatus.AWAITING_REGRADE);
+        assertThat(stream.submission().getAiScore()).isNull();
+        verify(tokenUsageTracker).release(1L);
     }
 
     @Test
-    void getByUserId_returnsList() {
-        List<Submission> subs = List.of(
-                Submission.builder().id(1L).build(),
-                Submission.builder().id(2L).build()
+    void streamSubmission_streamFailsMidway_marksForRegradeAndReleasesBudget() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(aiEvaluationService.streamEvaluation(question, "2", 1L)).thenReturn(Flux.concat(
+                Flux.just(new AiEvaluationService.EvaluationEvent.FeedbackDelta("Hyva ")),
+                Flux.error(new IllegalStateException("Stream ended without a result"))));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(gradingExecutor).execute(any(Runnable.class));
+
+        SubmissionService.GradingStream stream = submissionService.streamSubmission(1L, 1L, "2");
+
+        StepVerifier.create(stream.events())
+                .expectNext(new AiEvaluationService.EvaluationEvent.FeedbackDelta("Hyva "))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertThat(stream.submission().getGradingStatus()).isEqualTo(GradingStatus.AWAITING_REGRADE);
+        assertThat(stream.submission().getGradingStartedAt()).isNotNull();
+        verify(tokenUsageTracker).release(1L);
+    }
+
+    @Test
+    void streamSubmission_gradingPoolFull_marksForRegradeAndReleasesBudget() {
+        User user = User.builder().id(1L).username("testi").build();
+        Question question = Question.builder().id(1L).subject("mathematics").build();
+
+        when(userService.getUserReference(1L)).thenReturn(user);
+        when(questionService.getQuestionById(1L)).thenReturn(question);
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(aiEvaluationService.streamEvaluation(question, "2", 1L)).thenReturn(Flux.just(
+                new AiEvaluationService.EvaluationEvent.Completed(
+                        new AiEvaluationService.EvaluationResult("m", "Hyva vastaus", 5))));
+        doThrow(new RejectedExecutionException("Grading pool full")).when(gradingExecutor).execute(any(Runnable.class));
+
+        SubmissionService.GradingStream stream = submissionService.streamSubmission(1L, 1L, "2");
+
+        StepVerifier.create(stream.events())
+                .expectError(RejectedExecutionException.class)
+                .verify();
+        assertThat(stream.submission().getGradingStatus()).isEqualTo(GradingStatus.AWAITING_REGRADE);
+        assertThat(stream.submission().getAiScore()).isNull();
+        verify(tokenUsageTracker).release(1L);
+        verify(progressService, never()).saveGraded(any());
+    }
+
+    @Test
+    void getByUserId_returnsSummaries() {
+        List<SubmissionSummary> subs = List.of(
+                new SubmissionSummary(1L, 3L, "physics", 2, null, "m", 5, GradingStatus.GRADED),
+                new SubmissionSummary(2L, 4L, "history", 1, null, null, null, GradingStatus.PENDING)
         );
-        when(submissionRepository.findByUserId(1L)).thenReturn(subs);
+        when(submissionRepository.findSummariesByUserId(1L)).thenReturn(subs);
 
-        List<Submission> result = submissionService.getByUserId(1L);
+        List<SubmissionSummary> result = submissionService.getByUserId(1L);
 
         assertThat(result).hasSize(2);
+        assertThat(result.get(0).question()).isEqualTo(new QuestionRef(3L, "physics", 2));
+        verify(submissionRepository, never()).findByUserId(any());
     }
 
     @Test
-    void getById_found_returnsSubmission() {
-        Submission sub = Submission.builder().id(1L).answerText("vastaus").build();
-        when(submissionRepository.findById(1L)).thenReturn(Optional.of(sub));
+    void getById_found_returnsView() {
+        Submission sub = Submission.builder().id(1L).answerText("vastaus")
+                .user(User.builder().id(7L).username("testi").password("salasana-hash").build())
+                .question(Question.builder().id(3L).subject("physics").questionNumber(2).questionText("Valon nopeus?").build())
+                .build();
+        when(submissionRepository.findWithQuestionById(1L)).thenReturn(Optional.of(sub));
 
-        Submission result = submissionService.getById(1L);
+        SubmissionView result = submissionService.getById(1L);
 
-        assertThat(result.getAnswerText()).isEqualTo("vastaus");
+        assertThat(result.answerText()).isEqualTo("vastaus");
+        assertThat(result.userId()).isEqualTo(7L);
+        assertThat(result.question()).isEqualTo(new QuestionRef(3L, "physics", 2));
     }
 
     @Test
     void getById_notFound_throwsException() {
-        when(submissionRepository.findById(99L)).thenReturn(Optional.empty());
+        when(submissionRepository.findWithQuestionById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> submissionService.getById(99L))
                 .isInstanceOf(ResponseStatusException.class)
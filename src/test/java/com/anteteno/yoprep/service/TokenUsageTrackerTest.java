@@ -0,0 +1,126 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.dto.UserTokenTotal;
+import com.anteteno.yoprep.entity.Question;
+import com.anteteno.yoprep.event.UserDeletedEvent;
+import com.anteteno.yoprep.repository.SubmissionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+@DisplayName("TokenUsageTrackerTests")
+class TokenUsageTrackerTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-16T20:00:00Z");
+
+    private final SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+    private final Clock clock = mock(Clock.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TokenUsageTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(NOW);
+        tracker = new TokenUsageTracker(submissionRepository, meterRegistry, 1000, 500, Optional.of(clock));
+    }
+
+    @Test
+    void record_aggregatesPerUserSubjectAndQuestion() {
+        tracker.record(1L, question(10L, "physics"), result(300, 100));
+        tracker.record(1L, question(11L, "history"), result(200, 50));
+        tracker.record(2L, question(10L, "physics"), result(0, 0));
+
+        Map<String, Object> stats = tracker.stats(1);
+
+        assertThat(stats.get("total")).isEqualTo(new TokenUsageTracker.Usage(3, 500, 150, 650));
+        assertThat((Map<Object, Object>) stats.get("bySubject")).containsEntry("physics", new TokenUsageTracker.Usage(2, 300, 100, 400));
+        assertThat((List<Object>) stats.get("topUsers")).containsExactly(
+                Map.of("userId", 1L, "usage", new TokenUsageTracker.Usage(2, 500, 150, 650)));
+        assertThat((List<Object>) stats.get("topQuestions")).containsExactly(
+                Map.of("questionId", 10L, "subject", "physics", "usage", new TokenUsageTracker.Usage(2, 300, 100, 400)));
+        assertThat(meterRegistry.get("yoprep.ai.tokens").tag("type", "input").counter().count()).isEqualTo(500);
+    }
+
+    @Test
+    void isOverBudget_onceTodaysTokensReachTheBudget() {
+        tracker.record(1L, question(10L, "physics"), result(600, 300));
+        assertThat(tracker.isOverBudget(1L)).isFalse();
+
+        tracker.record(1L, question(10L, "physics"), result(80, 20));
+
+        assertThat(tracker.isOverBudget(1L)).isTrue();
+        assertThat(tracker.isOverBudget(2L)).isFalse();
+        assertThat(tracker.userUsage(1L)).containsEntry("tokensToday", 1000L).containsEntry("remainingToday", 0L);
+        assertThat(tracker.secondsUntilReset()).isEqualTo(4 * 3600);
+    }
+
+    @Test
+    void isOverBudget_resetsAtMidnight() {
+        tracker.record(1L, question(10L, "physics"), result(900, 200));
+
+        when(clock.instant()).thenReturn(NOW.plusSeconds(4 * 3600));
+
+        assertThat(tracker.isOverBudget(1L)).isFalse();
+        assertThat(tracker.userUsage(1L)).containsEntry("tokensToday", 0L);
+    }
+
+    @Test
+    void tryReserve_countsAnswersInFlightUntilRecordedOrReleased() {
+        assertThat(tracker.tryReserve(1L)).isTrue();
+        assertThat(tracker.tryReserve(1L)).isTrue();
+        assertThat(tracker.tryReserve(1L)).isFalse();
+        assertThat(tracker.tryReserve(2L)).isTrue();
+
+        // Graded for 100 tokens: 100 spent + 500 still reserved leaves room for one more
+        tracker.record(1L, question(10L, "physics"), result(80, 20));
+        assertThat(tracker.tryReserve(1L)).isTrue();
+        assertThat(tracker.tryReserve(1L)).isFalse();
+
+        tracker.release(1L);
+        assertThat(tracker.isOverBudget(1L)).isFalse();
+        assertThat(tracker.tryReserve(1L)).isTrue();
+    }
+
+    @Test
+    void loadToday_restoresTodaysSpendFromSubmissions() {
+        when(submissionRepository.sumTokensByUserSince(LocalDateTime.of(2026, 3, 16, 0, 0)))
+                .thenReturn(List.of(new UserTokenTotal(1L, 1200)));
+
+        tracker.loadToday();
+
+        assertThat(tracker.isOverBudget(1L)).isTrue();
+    }
+
+    @Test
+    void onUserDeleted_dropsUsageAndBudget() {
+        tracker.record(1L, question(10L, "physics"), result(900, 200));
+
+        tracker.onUserDeleted(new UserDeletedEvent(1L));
+
+        assertThat(tracker.isOverBudget(1L)).isFalse();
+        assertThat((List<?>) tracker.stats(10).get("topUsers")).isEmpty();
+    }
+
+    private static Question question(Long id, String subject) {
+        return Question.builder().id(id).subject(subject).build();
+    }
+
+    private static AiEvaluationService.EvaluationResult result(int inputTokens, int outputTokens) {
+        return new AiEvaluationService.EvaluationResult("m", "Hyvä", 4, inputTokens, outputTokens);
+    }
+}
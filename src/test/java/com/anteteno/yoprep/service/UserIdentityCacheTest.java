@@ -0,0 +1,65 @@
+package com.anteteno.yoprep.service;
+
+import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserIdentityCacheTests")
+class UserIdentityCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserIdentityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserIdentityCache(userRepository, 100, Duration.ofMinutes(30), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get_loadsOnceAndRemembersUsername() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().id(1L).username("matti").build()));
+
+        assertThat(cache.get(1L)).contains(new UserIdentityCache.Identity(1L, "matti"));
+        assertThat(cache.get(1L)).isPresent();
+        assertThat(cache.isKnownUsername("matti")).isTrue();
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void get_unknownIdIsCachedUntilUserIsCreated() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(2L)).isEmpty();
+        assertThat(cache.get(2L)).isEmpty();
+        verify(userRepository, times(1)).findById(2L);
+
+        cache.put(User.builder().id(2L).username("liisa").build());
+
+        assertThat(cache.get(2L)).contains(new UserIdentityCache.Identity(2L, "liisa"));
+    }
+
+    @Test
+    void invalidate_dropsIdAndUsername() {
+        cache.put(User.builder().id(3L).username("pekka").build());
+        when(userRepository.findById(3L)).thenReturn(Optional.empty());
+
+        cache.invalidate(3L);
+
+        assertThat(cache.isKnownUsername("pekka")).isFalse();
+        assertThat(cache.get(3L)).isEmpty();
+    }
+}
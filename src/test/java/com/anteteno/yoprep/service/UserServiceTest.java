@@ -1,14 +1,19 @@
 package com.anteteno.yoprep.service;
 
 import com.anteteno.yoprep.entity.User;
+import com.anteteno.yoprep.event.UserDeletedEvent;
+import com.anteteno.yoprep.repository.SubjectProgressRepository;
+import com.anteteno.yoprep.repository.SubmissionRepository;
+import com.anteteno.yoprep.repository.UserAnswerRepository;
 import com.anteteno.yoprep.repository.UserRepository;
+import com.anteteno.yoprep.security.PasswordHasher;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Collections;
@@ -18,7 +23,6 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,7 +33,22 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private UserIdentityCache userIdentityCache;
+
+    @Mock
+    private SubmissionRepository submissionRepository;
+
+    @Mock
+    private UserAnswerRepository userAnswerRepository;
+
+    @Mock
+    private SubjectProgressRepository subjectProgressRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private UserService userService;
@@ -42,9 +61,8 @@ class UserServiceTest {
                 .password("PlainText123")
                 .build();
 
-        when(userRepository.findUserByUsername("newuser")).thenReturn(null);
-        when(userRepository.findUserByEmail("new@example.com")).thenReturn(null);
-        when(passwordEncoder.encode("PlainText123")).thenReturn("$2a$10$hashedvalue");
+        when(userRepository.findUsernamesByUsernameOrEmail("newuser", "new@example.com")).thenReturn(List.of());
+        when(passwordHasher.encode("PlainText123")).thenReturn("$2a$10$hashedvalue");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User saved = invocation.getArgument(0);
             saved.setId(1L);
@@ -54,14 +72,14 @@ class UserServiceTest {
         User result = userService.createUser(input);
 
         assertThat(result.getPassword()).isEqualTo("$2a$10$hashedvalue");
-        verify(passwordEncoder, times(1)).encode("PlainText123");
+        verify(passwordHasher, times(1)).encode("PlainText123");
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userIdentityCache).put(result);
     }
 
     @Test
     void createUser_duplicateUsername_throwsException() {
-        User existing = User.builder().username("taken").build();
-        when(userRepository.findUserByUsername("taken")).thenReturn(existing);
+        when(userRepository.findUsernamesByUsernameOrEmail("taken", "new@example.com")).thenReturn(List.of("taken"));
 
         User input = User.builder()
                 .username("taken")
@@ -76,11 +94,21 @@ class UserServiceTest {
         verify(userRepository, never()).save(any());
     }
 
+    @Test
+    void createUser_usernameKnownToCache_throwsWithoutQuery() {
+        when(userIdentityCache.isKnownUsername("taken")).thenReturn(true);
+
+        User input = User.builder().username("taken").email("new@example.com").password("Password123").build();
+
+        assertThatThrownBy(() -> userService.createUser(input))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Username already exists");
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void createUser_duplicateEmail_throwsException() {
-        User existing = User.builder().email("taken@example.com").build();
-        when(userRepository.findUserByUsername(anyString())).thenReturn(null);
-        when(userRepository.findUserByEmail("taken@example.com")).thenReturn(existing);
+        when(userRepository.findUsernamesByUsernameOrEmail("newuser", "taken@example.com")).thenReturn(List.of("someoneelse"));
 
         User input = User.builder()
                 .username("newuser")
@@ -114,6 +142,52 @@ class UserServiceTest {
                 .hasMessageContaining("Cannot find user");
     }
 
+    @Test
+    void getUserReference_cachedUser_returnsReferenceWithoutLookup() {
+        User reference = User.builder().id(7L).build();
+        when(userIdentityCache.get(7L)).thenReturn(Optional.of(new UserIdentityCache.Identity(7L, "matti")));
+        when(userRepository.getReferenceById(7L)).thenReturn(reference);
+
+        assertThat(userService.getUserReference(7L)).isSameAs(reference);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserReference_deletedUser_rejectsWith401() {
+        when(userIdentityCache.get(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.getUserReference(99L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("401")
+                .hasMessageContaining("no longer exists");
+        verify(userRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    void deleteUserById_removesUserDataAndAnnouncesDeletion() {
+        when(userRepository.existsById(3L)).thenReturn(true);
+
+        userService.deleteUserById(3L);
+
+        verify(submissionRepository).deleteByUserId(3L);
+        verify(userAnswerRepository).deleteByUserId(3L);
+        verify(subjectProgressRepository).deleteByUserId(3L);
+        verify(userRepository).deleteById(3L);
+        verify(eventPublisher).publishEvent(new UserDeletedEvent(3L));
+        // Caches are only cleared by the after-commit listeners
+        verify(userIdentityCache, never()).invalidate(any());
+    }
+
+    @Test
+    void deleteUserById_unknownUser_throwsException() {
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> userService.deleteUserById(99L))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Cannot find user");
+        verify(userRepository, never()).deleteById(any());
+    }
+
     @Test
     void getAllUsers_returnsAllUsers() {
         List<User> users = List.of(
@@ -138,13 +212,28 @@ class UserServiceTest {
     void login_validCredentials_returnsUser() {
         User user = User.builder().id(1L).username("loginuser").password("$2a$10$hashedpassword").build();
         when(userRepository.findUserByUsername("loginuser")).thenReturn(user);
-        when(passwordEncoder.matches("correct_password", "$2a$10$hashedpassword")).thenReturn(true);
+        when(passwordHasher.matches("correct_password", "$2a$10$hashedpassword")).thenReturn(true);
 
         User result = userService.login("loginuser", "correct_password");
 
         assertThat(result.getUsername()).isEqualTo("loginuser");
     }
 
+    @Test
+    void login_hashWithOldCost_isRehashedAndSaved() {
+        User user = User.builder().id(1L).username("loginuser").password("$2a$08$oldhash").build();
+        when(userRepository.findUserByUsername("loginuser")).thenReturn(user);
+        when(passwordHasher.matches("correct_password", "$2a$08$oldhash")).thenReturn(true);
+        when(passwordHasher.needsRehash("$2a$08$oldhash")).thenReturn(true);
+        when(passwordHasher.encode("correct_password")).thenReturn("$2a$12$newhash");
+        when(userRepository.save(user)).thenReturn(user);
+
+        User result = userService.login("loginuser", "correct_password");
+
+        assertThat(result.getPassword()).isEqualTo("$2a$12$newhash");
+        verify(userRepository, times(1)).findUserByUsername("loginuser");
+    }
+
     @Test
     void login_unknownUsername_throwsNotFound() {
         when(userRepository.findUserByUsername("unknown")).thenReturn(null);
@@ -158,7 +247,7 @@ class UserServiceTest {
     void login_wrongPassword_throwsUnauthorized() {
         User user = User.builder().username("loginuser").password("$2a$10$hashedpassword").build();
         when(userRepository.findUserByUsername("loginuser")).thenReturn(user);
-        when(passwordEncoder.matches("wrong_password", "$2a$10$hashedpassword")).thenReturn(false);
+        when(passwordHasher.matches("wrong_password", "$2a$10$hashedpassword")).thenReturn(false);
 
         assertThatThrownBy(() -> userService.login("loginuser", "wrong_password"))
                 .isInstanceOf(ResponseStatusException.class)